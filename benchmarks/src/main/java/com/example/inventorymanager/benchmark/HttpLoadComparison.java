@@ -0,0 +1,101 @@
+package com.example.inventorymanager.benchmark;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Closed-loop HTTP load against a running instance, for comparing request
+ * thread and connection pool settings (INVENTORY_HTTP_THREADS,
+ * INVENTORY_DB_POOL_SIZE) on the same data:
+ *
+ *   mvn spring-boot:run                      (then run this, note the results)
+ *
+ *   java -cp benchmarks/target/classes com.example.inventorymanager.benchmark.HttpLoadComparison \
+ *       http://localhost:8082 200 30 /sales /products /api/batches/by-product/1
+ *
+ * Arguments: base URL, concurrent clients, seconds, then the paths to hit
+ * (picked at random per request). Prints throughput, latency percentiles and
+ * error count.
+ */
+public class HttpLoadComparison {
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 4) {
+            System.err.println("Usage: HttpLoadComparison <baseUrl> <clients> <seconds> <path>...");
+            System.exit(1);
+        }
+        String baseUrl = args[0];
+        int clients = Integer.parseInt(args[1]);
+        long seconds = Long.parseLong(args[2]);
+        List<URI> targets = Arrays.stream(args, 3, args.length).map(path -> URI.create(baseUrl + path)).toList();
+
+        HttpClient http = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+
+        ExecutorService pool = Executors.newFixedThreadPool(clients);
+        List<Future<Result>> futures = new ArrayList<>();
+        for (int i = 0; i < clients; i++) {
+            futures.add(pool.submit(() -> run(http, targets, deadline)));
+        }
+
+        List<Long> latencies = new ArrayList<>();
+        long errors = 0;
+        for (Future<Result> future : futures) {
+            Result result = future.get();
+            latencies.addAll(result.latenciesMicros);
+            errors += result.errors;
+        }
+        pool.shutdown();
+
+        latencies.sort(null);
+        System.out.printf("requests=%d errors=%d throughput=%.1f req/s%n",
+                latencies.size(), errors, latencies.size() / (double) seconds);
+        System.out.printf("latency ms: p50=%.1f p95=%.1f p99=%.1f max=%.1f%n",
+                percentile(latencies, 50), percentile(latencies, 95), percentile(latencies, 99),
+                percentile(latencies, 100));
+    }
+
+    private record Result(List<Long> latenciesMicros, long errors) {
+    }
+
+    private static Result run(HttpClient http, List<URI> targets, long deadline) {
+        List<Long> latencies = new ArrayList<>();
+        long errors = 0;
+        while (System.nanoTime() < deadline) {
+            URI target = targets.get(ThreadLocalRandom.current().nextInt(targets.size()));
+            HttpRequest request = HttpRequest.newBuilder(target).timeout(Duration.ofSeconds(30)).GET().build();
+            long start = System.nanoTime();
+            try {
+                HttpResponse<Void> response = http.send(request, HttpResponse.BodyHandlers.discarding());
+                if (response.statusCode() >= 400) {
+                    errors++;
+                    continue;
+                }
+            } catch (Exception e) {
+                errors++;
+                continue;
+            }
+            latencies.add((System.nanoTime() - start) / 1_000);
+        }
+        return new Result(latencies, errors);
+    }
+
+    private static double percentile(List<Long> sortedMicros, int percentile) {
+        if (sortedMicros.isEmpty()) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile / 100.0 * sortedMicros.size()) - 1;
+        return sortedMicros.get(Math.max(index, 0)) / 1000.0;
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.inventorymanager.benchmark;
+
+import com.example.inventorymanager.dto.BatchView;
+import com.example.inventorymanager.model.Inventory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * InventoryService read paths: throughput and sampled latency (percentiles)
+ */
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@Threads(4)
+public class InventoryBenchmark {
+
+    @Benchmark
+    public List<BatchView> getAvailableBatches(SeededApplication app) {
+        return app.inventoryService.getAvailableBatches(app.product.getId());
+    }
+
+    @Benchmark
+    public Page<Inventory> getInventoryByProduct(SeededApplication app) {
+        return app.inventoryService.getInventoryByProduct(app.product.getId(), 1, 10,
+                null, null, null, "ACTIVE", "batchCode", "asc");
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.inventorymanager.benchmark;
+
+import com.example.inventorymanager.dto.SaleLine;
+import com.example.inventorymanager.model.Inventory;
+import com.example.inventorymanager.model.Sale;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.ThreadParams;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SaleService write paths: throughput and sampled latency (percentiles).
+ * journalSale is the write-behind alternative to createSale (one commit per
+ * sale).
+ */
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@Threads(4)
+public class SaleBenchmark {
+
+    /**
+     * One batch and one existing sale per benchmark thread
+     */
+    @State(Scope.Thread)
+    public static class ThreadSale {
+        Inventory batch;
+        Long saleId;
+        int quantity = 1;
+
+        @Setup(Level.Trial)
+        public void create(SeededApplication app, ThreadParams threadParams) {
+            batch = app.batchFor(threadParams.getThreadIndex());
+            saleId = app.saleService.createSale(newSale(app, batch, 1)).getId();
+        }
+    }
+
+    @Benchmark
+    public Sale createSale(SeededApplication app, ThreadSale state) {
+        return app.saleService.createSale(newSale(app, state.batch, 1));
+    }
+
+    /**
+     * Acknowledged once on disk. When the journal is full the sale is retried,
+     * so sustained throughput is bounded by the drain into the database too.
+     */
+    @Benchmark
+    public long journalSale(SeededApplication app, ThreadSale state) throws InterruptedException {
+        SaleLine line = new SaleLine(app.product.getId(), state.batch.getId(), 1, new BigDecimal("10.00"),
+                LocalDate.now());
+        while (true) {
+            try {
+                return app.saleJournalService.submit(line);
+            } catch (IllegalStateException full) {
+                Thread.sleep(1);
+            }
+        }
+    }
+
+    @Benchmark
+    public Sale updateSale(SeededApplication app, ThreadSale state) {
+        state.quantity = state.quantity == 1 ? 2 : 1;
+        return app.saleService.updateSale(state.saleId, newSale(app, state.batch, state.quantity));
+    }
+
+    /**
+     * Includes the cost of creating the sale it deletes; subtract createSale
+     */
+    @Benchmark
+    public void createAndDeleteSale(SeededApplication app, ThreadSale state) {
+        Sale sale = app.saleService.createSale(newSale(app, state.batch, 1));
+        app.saleService.deleteSale(sale.getId());
+    }
+
+    private static Sale newSale(SeededApplication app, Inventory batch, int quantity) {
+        Sale sale = new Sale();
+        sale.setProduct(app.product);
+        sale.setInventory(batch);
+        sale.setQuantity(quantity);
+        sale.setSellingPrice(new BigDecimal("10.00"));
+        sale.setSaleDate(LocalDate.now());
+        return sale;
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.inventorymanager.benchmark;
+
+import com.example.inventorymanager.InventoryManagerApplication;
+import com.example.inventorymanager.model.Inventory;
+import com.example.inventorymanager.model.Product;
+import com.example.inventorymanager.service.InventoryService;
+import com.example.inventorymanager.service.ProductService;
+import com.example.inventorymanager.service.SaleJournalService;
+import com.example.inventorymanager.service.SaleService;
+import com.example.inventorymanager.service.SalesReportService;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * The service layer booted against a fresh in-memory H2 database, seeded with
+ * one product, {@link #BATCHES} batches and {@code sales} historical sales.
+ * The sale journal is enabled, in a temporary directory. Shared by all
+ * benchmark threads.
+ */
+@State(Scope.Benchmark)
+public class SeededApplication {
+
+    static final int BATCHES = 20;
+
+    @Param({ "1000", "100000", "1000000" })
+    public int sales;
+
+    ConfigurableApplicationContext context;
+    Path journalDir;
+    SaleService saleService;
+    SaleJournalService saleJournalService;
+    InventoryService inventoryService;
+    Product product;
+    final List<Inventory> batches = new ArrayList<>();
+
+    @Setup(Level.Trial)
+    public void start() throws IOException {
+        journalDir = Files.createTempDirectory("sale-journal");
+        context = new SpringApplicationBuilder(InventoryManagerApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties("spring.main.banner-mode=off",
+                        "logging.level.root=WARN",
+                        "spring.jpa.open-in-view=false",
+                        "spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1")
+                // Arguments, as defaults cannot override application.properties
+                .run("--inventory.sale-journal.enabled=true", "--inventory.sale-journal.dir=" + journalDir);
+        saleService = context.getBean(SaleService.class);
+        saleJournalService = context.getBean(SaleJournalService.class);
+        inventoryService = context.getBean(InventoryService.class);
+        seed();
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() throws IOException {
+        context.close();
+        try (Stream<Path> files = Files.walk(journalDir)) {
+            for (Path path : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    /**
+     * Batch for a benchmark thread, so threads mostly hit different rows
+     */
+    Inventory batchFor(int thread) {
+        return batches.get(thread % BATCHES);
+    }
+
+    private void seed() {
+        Product newProduct = new Product();
+        newProduct.setName("Benchmark Honey");
+        newProduct.setDescription("Seeded for benchmarks");
+        newProduct.setPrice(new BigDecimal("10.00"));
+        newProduct.setSku("BENCH");
+        product = context.getBean(ProductService.class).saveProduct(newProduct);
+
+        for (int i = 0; i < BATCHES; i++) {
+            Inventory batch = new Inventory();
+            batch.setProduct(product);
+            batch.setQuantity(1_000_000_000);
+            batch.setEntryDate(LocalDate.now());
+            batch.setExpiryDate(i % 2 == 0 ? LocalDate.now().plusYears(1 + i) : null);
+            batches.add(inventoryService.saveInventory(batch));
+        }
+
+        // Historical sales in bulk, spread over the batches and the last year
+        JdbcTemplate jdbc = context.getBean(JdbcTemplate.class);
+        int perBatch = sales / BATCHES;
+        for (int i = 0; i < BATCHES; i++) {
+            jdbc.update("INSERT INTO sales (id, product_id, inventory_id, quantity, selling_price, sale_date, "
+                    + "created_at, deleted) SELECT X + ?, ?, ?, 1, 10.00, DATEADD(DAY, -MOD(X, 365), CURRENT_DATE), "
+                    + "CURRENT_TIMESTAMP, false FROM SYSTEM_RANGE(1, ?)",
+                    (long) i * perBatch, product.getId(), batches.get(i).getId(), perBatch);
+        }
+        // Keep Hibernate's pooled sales_seq clear of the seeded ids
+        jdbc.execute("ALTER SEQUENCE sales_seq RESTART WITH " + (sales + 1000));
+        context.getBean(SalesReportService.class).rebuild();
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.inventorymanager.controller;
+
+import com.example.inventorymanager.model.ArchivedInventory;
+import com.example.inventorymanager.model.ArchivedProduct;
+import com.example.inventorymanager.model.ArchivedSale;
+import com.example.inventorymanager.service.ArchiveService;
+import com.example.inventorymanager.service.HistoryService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Read access to rows moved to the archive tables, and a manual archive run
+ */
+@RestController
+@RequestMapping("/api")
+public class HistoryRestController {
+
+    private final HistoryService historyService;
+    private final ArchiveService archiveService;
+
+    public HistoryRestController(HistoryService historyService, ArchiveService archiveService) {
+        this.historyService = historyService;
+        this.archiveService = archiveService;
+    }
+
+    /**
+     * Archived sales in a date range (optionally one product), oldest first
+     */
+    @GetMapping("/history/sales")
+    public List<ArchivedSale> getArchivedSales(
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd") LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd") LocalDate to,
+            @RequestParam(required = false) Long productId,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "100") int size) {
+        return historyService.getArchivedSales(from, to, productId, page, size);
+    }
+
+    /**
+     * Archived (deleted) batches of a product
+     */
+    @GetMapping("/history/inventory")
+    public List<ArchivedInventory> getArchivedInventory(@RequestParam Long productId) {
+        return historyService.getArchivedInventory(productId);
+    }
+
+    /**
+     * Archived (deleted) products
+     */
+    @GetMapping("/history/products")
+    public List<ArchivedProduct> getArchivedProducts() {
+        return historyService.getArchivedProducts();
+    }
+
+    /**
+     * Run the archiver now instead of waiting for the nightly run
+     */
+    @PostMapping("/archive/run")
+    public ResponseEntity<?> runArchive() {
+        try {
+            return ResponseEntity.ok(archiveService.archive());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+        }
+    }
+}
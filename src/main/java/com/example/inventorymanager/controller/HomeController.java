@@ -1,5 +1,6 @@
 package com.example.inventorymanager.controller;
 
+import com.example.inventorymanager.service.StockSummaryService;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -7,9 +8,18 @@ import org.springframework.web.bind.annotation.GetMapping;
 @Controller
 public class HomeController {
 
+    private final StockSummaryService stockSummaryService;
+
+    public HomeController(StockSummaryService stockSummaryService) {
+        this.stockSummaryService = stockSummaryService;
+    }
+
     @GetMapping("/")
     public String home(Model model) {
         model.addAttribute("title", "Inventory Manager");
+        model.addAttribute("totals", stockSummaryService.getTotals());
+        model.addAttribute("expiringSoon", stockSummaryService.getExpiringSoon());
+        model.addAttribute("expiringDays", stockSummaryService.getExpiringDays());
         return "home";
     }
 }
@@ -1,5 +1,6 @@
 package com.example.inventorymanager.controller;
 
+import com.example.inventorymanager.dto.CursorPage;
 import com.example.inventorymanager.model.Inventory;
 import com.example.inventorymanager.model.Product;
 import com.example.inventorymanager.service.InventoryService;
@@ -38,20 +39,36 @@ public class InventoryController {
             @RequestParam(required = false, defaultValue = "ALL") String status,
             @RequestParam(required = false, defaultValue = "batchCode") String sortField,
             @RequestParam(required = false, defaultValue = "asc") String sortDir,
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) String before,
             Model model) {
         Product product = productService.getProductById(productId)
                 .orElseThrow(() -> new IllegalArgumentException("Invalid product Id:" + productId));
 
-        Page<Inventory> inventoryPage = inventoryService.getInventoryByProduct(productId, page, size,
-                keyword, startDate, endDate,
-                status, sortField, sortDir);
-
         model.addAttribute("product", product);
-        model.addAttribute("inventoryPage", inventoryPage);
-        model.addAttribute("inventoryList", inventoryPage.getContent());
-        model.addAttribute("currentPage", page);
-        model.addAttribute("totalPages", inventoryPage.getTotalPages());
-        model.addAttribute("totalItems", inventoryPage.getTotalElements());
+        if ("batchCode".equals(sortField)) {
+            // Keyset mode: previous/next cursors instead of page numbers and totals
+            CursorPage<Inventory> inventoryPage;
+            try {
+                inventoryPage = inventoryService.getInventoryPageByProduct(productId,
+                        after, before, size, keyword, startDate, endDate, status, sortDir);
+            } catch (IllegalArgumentException e) {
+                // Stale or hand-edited cursor: start again from the first page
+                inventoryPage = inventoryService.getInventoryPageByProduct(productId,
+                        null, null, size, keyword, startDate, endDate, status, sortDir);
+            }
+            model.addAttribute("cursorPage", inventoryPage);
+            model.addAttribute("inventoryList", inventoryPage.content());
+        } else {
+            Page<Inventory> inventoryPage = inventoryService.getInventoryByProduct(productId, page, size,
+                    keyword, startDate, endDate,
+                    status, sortField, sortDir);
+            model.addAttribute("inventoryPage", inventoryPage);
+            model.addAttribute("inventoryList", inventoryPage.getContent());
+            model.addAttribute("currentPage", page);
+            model.addAttribute("totalPages", inventoryPage.getTotalPages());
+            model.addAttribute("totalItems", inventoryPage.getTotalElements());
+        }
 
         // Pass filter params back to view
         model.addAttribute("keyword", keyword);
@@ -81,7 +98,8 @@ public class InventoryController {
 
     @PostMapping("/save")
     public String saveInventory(@PathVariable("productId") Long productId,
-            @ModelAttribute("inventory") Inventory inventory) {
+            @ModelAttribute("inventory") Inventory inventory,
+            RedirectAttributes redirectAttributes) {
         Product product = productService.getProductById(productId)
                 .orElseThrow(() -> new IllegalArgumentException("Invalid product Id:" + productId));
         inventory.setProduct(product);
@@ -91,7 +109,11 @@ public class InventoryController {
             inventory.setExpiryDate(inventory.getEntryDate().plusDays(inventory.getExpiryDays()));
         }
 
-        inventoryService.saveInventory(inventory);
+        try {
+            inventoryService.saveInventory(inventory);
+        } catch (IllegalStateException e) {
+            redirectAttributes.addFlashAttribute("error", e.getMessage());
+        }
         return "redirect:/products/" + productId + "/inventory";
     }
 
@@ -0,0 +1,50 @@
+package com.example.inventorymanager.controller;
+
+import com.example.inventorymanager.dto.InventoryImportResult;
+import com.example.inventorymanager.service.InventoryImportService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/inventory")
+public class InventoryRestController {
+
+    private final InventoryImportService inventoryImportService;
+
+    public InventoryRestController(InventoryImportService inventoryImportService) {
+        this.inventoryImportService = inventoryImportService;
+    }
+
+    /**
+     * Import inventory receipts from an uploaded CSV file (form field "file")
+     */
+    @PostMapping(value = "/import", consumes = "multipart/form-data")
+    public ResponseEntity<?> importInventory(@RequestParam("file") MultipartFile file) throws IOException {
+        try (InputStream in = file.getInputStream()) {
+            return importCsv(in);
+        }
+    }
+
+    /**
+     * Import inventory receipts posted directly as a text/csv body
+     */
+    @PostMapping(value = "/import", consumes = "text/csv")
+    public ResponseEntity<?> importInventory(HttpServletRequest request) throws IOException {
+        return importCsv(request.getInputStream());
+    }
+
+    private ResponseEntity<?> importCsv(InputStream in) throws IOException {
+        try {
+            InventoryImportResult result = inventoryImportService.importCsv(in);
+            return ResponseEntity.ok(result);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+}
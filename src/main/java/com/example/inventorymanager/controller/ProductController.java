@@ -2,6 +2,7 @@ package com.example.inventorymanager.controller;
 
 import com.example.inventorymanager.model.Product;
 import com.example.inventorymanager.service.ProductService;
+import com.example.inventorymanager.service.StockSummaryService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
@@ -16,10 +17,12 @@ import java.util.List;
 public class ProductController {
 
     private final ProductService productService;
+    private final StockSummaryService stockSummaryService;
 
     @Autowired
-    public ProductController(ProductService productService) {
+    public ProductController(ProductService productService, StockSummaryService stockSummaryService) {
         this.productService = productService;
+        this.stockSummaryService = stockSummaryService;
     }
 
     @GetMapping
@@ -43,6 +46,10 @@ public class ProductController {
         model.addAttribute("currentPage", page);
         model.addAttribute("totalPages", productPage.getTotalPages());
         model.addAttribute("totalItems", productPage.getTotalElements());
+        // Stock levels of the page, by primary key from the summary table
+        model.addAttribute("summaries", stockSummaryService.getSummaries(
+                listProducts.stream().map(Product::getId).toList()));
+        model.addAttribute("expiringDays", stockSummaryService.getExpiringDays());
 
         return "products";
     }
@@ -0,0 +1,51 @@
+package com.example.inventorymanager.controller;
+
+import com.example.inventorymanager.service.ProductCatalogueCache;
+import com.example.inventorymanager.service.ProductLookupService;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/products")
+public class ProductRestController {
+
+    private final ProductCatalogueCache productCatalogueCache;
+    private final ProductLookupService productLookupService;
+
+    public ProductRestController(ProductCatalogueCache productCatalogueCache,
+            ProductLookupService productLookupService) {
+        this.productCatalogueCache = productCatalogueCache;
+        this.productLookupService = productLookupService;
+    }
+
+    /**
+     * Id, name, SKU and price of every product. Browsers keep the response and
+     * revalidate it with If-None-Match, getting 304 while the catalogue is
+     * unchanged.
+     */
+    @GetMapping("/lookup")
+    public ResponseEntity<byte[]> getLookup(WebRequest request) {
+        ProductLookupService.Snapshot lookup = productLookupService.getLookup();
+        if (request.checkNotModified(lookup.etag())) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .eTag(lookup.etag())
+                .cacheControl(CacheControl.noCache())
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(lookup.json());
+    }
+
+    /**
+     * Hit ratios of the product second-level cache and catalogue query cache
+     */
+    @GetMapping("/cache-stats")
+    public List<ProductCatalogueCache.RegionStats> getCacheStats() {
+        return productCatalogueCache.stats();
+    }
+}
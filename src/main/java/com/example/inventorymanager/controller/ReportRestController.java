@@ -0,0 +1,67 @@
+package com.example.inventorymanager.controller;
+
+import com.example.inventorymanager.dto.SalesReport;
+import com.example.inventorymanager.dto.StockTotals;
+import com.example.inventorymanager.service.SalesReportService;
+import com.example.inventorymanager.service.StockSummaryService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/reports")
+public class ReportRestController {
+
+    private final SalesReportService salesReportService;
+    private final StockSummaryService stockSummaryService;
+
+    public ReportRestController(SalesReportService salesReportService, StockSummaryService stockSummaryService) {
+        this.salesReportService = salesReportService;
+        this.stockSummaryService = stockSummaryService;
+    }
+
+    /**
+     * Sales totals for a date range (inclusive), from the daily rollup
+     *
+     * @param groupBy day, product or batch
+     */
+    @GetMapping("/sales")
+    public ResponseEntity<?> getSalesReport(
+            @RequestParam @DateTimeFormat(pattern = "yyyy-MM-dd") LocalDate from,
+            @RequestParam @DateTimeFormat(pattern = "yyyy-MM-dd") LocalDate to,
+            @RequestParam(defaultValue = "product") String groupBy) {
+        try {
+            SalesReport report = salesReportService.getReport(from, to, groupBy);
+            return ResponseEntity.ok(report);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Rebuild the rollup by replaying the sales table
+     */
+    @PostMapping("/sales/rebuild")
+    public Map<String, Object> rebuildSalesRollup() {
+        return Map.of("rows", salesReportService.rebuild());
+    }
+
+    /**
+     * Stock levels over all products, from the stock summary
+     */
+    @GetMapping("/stock-summary")
+    public StockTotals getStockSummary() {
+        return stockSummaryService.getTotals();
+    }
+
+    /**
+     * Rebuild the stock summary from the inventory
+     */
+    @PostMapping("/stock-summary/rebuild")
+    public Map<String, Object> rebuildStockSummary() {
+        return Map.of("rows", stockSummaryService.rebuild());
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.inventorymanager.controller;
+
+import com.example.inventorymanager.dto.ReservationConfirmation;
+import com.example.inventorymanager.dto.ReservationRequest;
+import com.example.inventorymanager.dto.StockReservation;
+import com.example.inventorymanager.model.Sale;
+import com.example.inventorymanager.service.StockReservationService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/reservations")
+public class ReservationRestController {
+
+    private final StockReservationService stockReservationService;
+
+    public ReservationRestController(StockReservationService stockReservationService) {
+        this.stockReservationService = stockReservationService;
+    }
+
+    /**
+     * Hold stock of a batch for a phone or online order until it is paid
+     */
+    @PostMapping
+    public ResponseEntity<StockReservation> reserve(@RequestBody ReservationRequest request) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(stockReservationService.reserve(request));
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<StockReservation> getReservation(@PathVariable String id) {
+        return stockReservationService.getReservation(id)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Sell the held units
+     */
+    @PostMapping("/{id}/confirm")
+    public Map<String, Long> confirm(@PathVariable String id, @RequestBody ReservationConfirmation confirmation) {
+        Sale sale = stockReservationService.confirm(id, confirmation);
+        return Map.of("saleId", sale.getId());
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> release(@PathVariable String id) {
+        stockReservationService.release(id);
+        return ResponseEntity.noContent().build();
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Map<String, String>> badRequest(IllegalArgumentException e) {
+        return ResponseEntity.badRequest()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(Map.of("error", e.getMessage()));
+    }
+
+    // Not enough stock, or the batch expired
+    @ExceptionHandler(IllegalStateException.class)
+    public ResponseEntity<Map<String, String>> conflict(IllegalStateException e) {
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(Map.of("error", e.getMessage()));
+    }
+}
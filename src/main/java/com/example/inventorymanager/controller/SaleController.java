@@ -1,5 +1,7 @@
 package com.example.inventorymanager.controller;
 
+import com.example.inventorymanager.dto.CursorPage;
+import com.example.inventorymanager.dto.SaleRow;
 import com.example.inventorymanager.model.Inventory;
 import com.example.inventorymanager.model.Product;
 import com.example.inventorymanager.model.Sale;
@@ -33,14 +35,29 @@ public class SaleController {
     public String listSales(@RequestParam(defaultValue = "1") int page,
             @RequestParam(defaultValue = "saleDate") String sortField,
             @RequestParam(defaultValue = "desc") String sortDir,
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) String before,
             Model model) {
         int pageSize = 10;
-        Page<Sale> salesPage = saleService.getAllSales(page, pageSize, sortField, sortDir);
+        if ("saleDate".equals(sortField)) {
+            // Keyset mode: previous/next cursors instead of page numbers and totals
+            CursorPage<SaleRow> salesPage;
+            try {
+                salesPage = saleService.getSalesPage(after, before, pageSize, sortDir);
+            } catch (IllegalArgumentException e) {
+                // Stale or hand-edited cursor: start again from the first page
+                salesPage = saleService.getSalesPage(null, null, pageSize, sortDir);
+            }
+            model.addAttribute("sales", salesPage.content());
+            model.addAttribute("cursorPage", salesPage);
+        } else {
+            Page<SaleRow> salesPage = saleService.getAllSales(page, pageSize, sortField, sortDir);
+            model.addAttribute("sales", salesPage.getContent());
+            model.addAttribute("currentPage", page);
+            model.addAttribute("totalPages", salesPage.getTotalPages());
+            model.addAttribute("totalItems", salesPage.getTotalElements());
+        }
 
-        model.addAttribute("sales", salesPage.getContent());
-        model.addAttribute("currentPage", page);
-        model.addAttribute("totalPages", salesPage.getTotalPages());
-        model.addAttribute("totalItems", salesPage.getTotalElements());
         model.addAttribute("sortField", sortField);
         model.addAttribute("sortDir", sortDir);
         model.addAttribute("reverseSortDir", sortDir.equals("asc") ? "desc" : "asc");
@@ -54,7 +71,6 @@ public class SaleController {
         sale.setSaleDate(LocalDate.now()); // Default to today
 
         model.addAttribute("sale", sale);
-        model.addAttribute("products", productService.getAllProducts());
         model.addAttribute("batches", List.of()); // Empty initially, populated via JS
 
         return "sale_form";
@@ -63,12 +79,21 @@ public class SaleController {
     @PostMapping
     public String createSale(@ModelAttribute Sale sale,
             @RequestParam Long productId,
-            @RequestParam Long inventoryId,
+            @RequestParam(required = false) Long inventoryId,
             RedirectAttributes redirectAttributes) {
         try {
             // Set the product and inventory
             Product product = productService.getProductById(productId)
                     .orElseThrow(() -> new IllegalArgumentException("Product not found"));
+
+            // No batch picked: allocate across batches, earliest expiry first
+            if (inventoryId == null) {
+                List<Sale> sales = saleService.createSaleFefo(product, sale);
+                redirectAttributes.addFlashAttribute("message",
+                        "Sale created successfully across " + sales.size() + " batch(es)!");
+                return "redirect:/sales";
+            }
+
             Inventory inventory = inventoryService.getInventoryById(inventoryId)
                     .orElseThrow(() -> new IllegalArgumentException("Inventory batch not found"));
 
@@ -90,7 +115,6 @@ public class SaleController {
                 .orElseThrow(() -> new IllegalArgumentException("Sale not found"));
 
         model.addAttribute("sale", sale);
-        model.addAttribute("products", productService.getAllProducts());
         // FIX: Use getBatchesForEdit to include current batch even if 0 qty
         model.addAttribute("batches",
                 saleService.getBatchesForEdit(sale.getProduct().getId(), sale.getInventory().getId()));
@@ -0,0 +1,54 @@
+package com.example.inventorymanager.controller;
+
+import com.example.inventorymanager.dto.SaleJournalStatus;
+import com.example.inventorymanager.dto.SaleLine;
+import com.example.inventorymanager.service.SaleJournalService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/sales/journal")
+@ConditionalOnProperty(name = "inventory.sale-journal.enabled", havingValue = "true")
+public class SaleJournalController {
+
+    private final SaleJournalService saleJournalService;
+
+    public SaleJournalController(SaleJournalService saleJournalService) {
+        this.saleJournalService = saleJournalService;
+    }
+
+    /**
+     * High-throughput sale ingestion: 202 once the sale is durably journaled,
+     * with its journal sequence. The sale appears in the sales list once the
+     * journal has been applied (see /status).
+     */
+    @PostMapping
+    public ResponseEntity<Map<String, Long>> submit(@RequestBody SaleLine line) {
+        return ResponseEntity.accepted().body(Map.of("sequence", saleJournalService.submit(line)));
+    }
+
+    @GetMapping("/status")
+    public SaleJournalStatus status() {
+        return saleJournalService.status();
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Map<String, String>> badRequest(IllegalArgumentException e) {
+        return ResponseEntity.badRequest()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(Map.of("error", e.getMessage()));
+    }
+
+    // Starting up, shutting down, full, or the journal cannot be written
+    @ExceptionHandler(IllegalStateException.class)
+    public ResponseEntity<Map<String, String>> unavailable(IllegalStateException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(Map.of("error", e.getMessage()));
+    }
+}
@@ -1,37 +1,62 @@
 package com.example.inventorymanager.controller;
 
-import com.example.inventorymanager.model.Inventory;
+import com.example.inventorymanager.dto.BatchSaleResult;
+import com.example.inventorymanager.dto.BatchView;
+import com.example.inventorymanager.dto.SaleLine;
+import com.example.inventorymanager.service.AvailableBatchIndex;
+import com.example.inventorymanager.service.SaleExportService;
 import com.example.inventorymanager.service.SaleService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
 import java.util.List;
-import java.util.stream.Collectors;
-import java.util.Map;
-import java.util.HashMap;
 
 @RestController
 @RequestMapping("/api")
 public class SalesRestController {
 
     private final SaleService saleService;
+    private final AvailableBatchIndex availableBatchIndex;
+    private final SaleExportService saleExportService;
 
-    public SalesRestController(SaleService saleService) {
+    public SalesRestController(SaleService saleService, AvailableBatchIndex availableBatchIndex,
+            SaleExportService saleExportService) {
         this.saleService = saleService;
+        this.availableBatchIndex = availableBatchIndex;
+        this.saleExportService = saleExportService;
     }
 
     /**
      * Get available batches for a product (for dropdown population)
      * FIX: Includes current batch in edit mode even if quantity is 0
+     * Conditional: the ETag is the product's stock version, so an unchanged
+     * list costs a counter read and an empty 304.
      * 
      * @param includeInventoryId Optional - the current batch ID when editing (to
      *                           ensure it shows)
      */
     @GetMapping("/batches/by-product/{productId}")
-    public List<Map<String, Object>> getAvailableBatches(
+    public ResponseEntity<List<BatchView>> getAvailableBatches(
             @PathVariable Long productId,
-            @RequestParam(required = false) Long includeInventoryId) {
+            @RequestParam(required = false) Long includeInventoryId,
+            WebRequest request) {
 
-        List<Inventory> batches;
+        // The date is part of the tag: batches drop out of the list as they expire
+        String etag = "\"" + productId + "-" + availableBatchIndex.stockVersion(productId) + "-" + LocalDate.now()
+                + (includeInventoryId != null ? "-" + includeInventoryId : "") + "\"";
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+
+        List<BatchView> batches;
         if (includeInventoryId != null) {
             // Edit mode: include current batch even if 0 qty
             batches = saleService.getBatchesForEdit(productId, includeInventoryId);
@@ -39,14 +64,55 @@ public class SalesRestController {
             // New sale mode: only available batches
             batches = saleService.getAvailableBatches(productId);
         }
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache())
+                .body(batches);
+    }
+
+    /**
+     * Hit/miss counters of the in-memory available-batch index
+     */
+    @GetMapping("/batches/index-stats")
+    public AvailableBatchIndex.Stats getBatchIndexStats() {
+        return availableBatchIndex.stats();
+    }
+
+    /**
+     * Bulk sale ingestion (POS end-of-day upload). Applies the whole list in one
+     * transaction and reports the outcome of every line.
+     */
+    @PostMapping("/sales/batch")
+    public BatchSaleResult createSales(@RequestBody List<SaleLine> lines) {
+        return saleService.createSales(lines);
+    }
+
+    /**
+     * Stream all sales in a date range (optionally one product) as CSV or
+     * NDJSON. Rows are written as they are read, so exports of any size use
+     * constant memory.
+     *
+     * @param format csv or ndjson
+     */
+    @GetMapping("/sales/export")
+    public ResponseEntity<StreamingResponseBody> exportSales(
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd") LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd") LocalDate to,
+            @RequestParam(required = false) Long productId) {
+        boolean csv = "csv".equalsIgnoreCase(format);
+        if (!csv && !"ndjson".equalsIgnoreCase(format)) {
+            return ResponseEntity.badRequest().build();
+        }
+        LocalDate start = from != null ? from : LocalDate.of(1900, 1, 1);
+        LocalDate end = to != null ? to : LocalDate.of(9999, 12, 31);
 
-        return batches.stream().map(batch -> {
-            Map<String, Object> batchInfo = new HashMap<>();
-            batchInfo.put("id", batch.getId());
-            batchInfo.put("batchCode", batch.getBatchCode());
-            batchInfo.put("quantity", batch.getQuantity());
-            batchInfo.put("expiryDate", batch.getExpiryDate() != null ? batch.getExpiryDate().toString() : null);
-            return batchInfo;
-        }).collect(Collectors.toList());
+        StreamingResponseBody body = out -> saleExportService.export(format, start, end, productId, out);
+        return ResponseEntity.ok()
+                .contentType(csv ? new MediaType("text", "csv", StandardCharsets.UTF_8)
+                        : MediaType.parseMediaType("application/x-ndjson"))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"sales." + (csv ? "csv" : "ndjson") + "\"")
+                .body(body);
     }
 }
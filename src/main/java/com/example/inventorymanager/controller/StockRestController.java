@@ -0,0 +1,29 @@
+package com.example.inventorymanager.controller;
+
+import com.example.inventorymanager.dto.StockAsOf;
+import com.example.inventorymanager.service.StockLedgerService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+
+@RestController
+@RequestMapping("/api/stock")
+public class StockRestController {
+
+    private final StockLedgerService stockLedgerService;
+
+    public StockRestController(StockLedgerService stockLedgerService) {
+        this.stockLedgerService = stockLedgerService;
+    }
+
+    /**
+     * Stock of a product on hand at the end of a date, per batch, from the
+     * stock movement ledger
+     */
+    @GetMapping("/as-of")
+    public StockAsOf getStockAsOf(@RequestParam Long productId,
+            @RequestParam @DateTimeFormat(pattern = "yyyy-MM-dd") LocalDate date) {
+        return stockLedgerService.getStockAsOf(productId, date);
+    }
+}
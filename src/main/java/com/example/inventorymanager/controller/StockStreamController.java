@@ -0,0 +1,52 @@
+package com.example.inventorymanager.controller;
+
+import com.example.inventorymanager.service.StockStreamService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/stream")
+public class StockStreamController {
+
+    private static final int MAX_PRODUCTS = 50;
+
+    private final StockStreamService stockStreamService;
+
+    public StockStreamController(StockStreamService stockStreamService) {
+        this.stockStreamService = stockStreamService;
+    }
+
+    /**
+     * Live batch stock of one or more products (repeat productId), as
+     * Server-Sent Events named "stock", one per changed product
+     */
+    @GetMapping(value = "/stock", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamStock(@RequestParam List<Long> productId) {
+        if (productId.isEmpty() || productId.size() > MAX_PRODUCTS) {
+            throw new IllegalArgumentException("Pass between 1 and " + MAX_PRODUCTS + " productId values");
+        }
+        return stockStreamService.open(new LinkedHashSet<>(productId));
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Map<String, String>> badRequest(IllegalArgumentException e) {
+        return ResponseEntity.badRequest()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(Map.of("error", e.getMessage()));
+    }
+
+    // Stream limit reached
+    @ExceptionHandler(IllegalStateException.class)
+    public ResponseEntity<Map<String, String>> unavailable(IllegalStateException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(Map.of("error", e.getMessage()));
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.inventorymanager.dto;
+
+/**
+ * Rows moved to the archive tables by one archive run
+ */
+public record ArchiveResult(long sales, long inventory, long products, long elapsedMillis) {
+}
@@ -0,0 +1,10 @@
+package com.example.inventorymanager.dto;
+
+import java.util.List;
+
+/**
+ * Summary of a bulk sale upload with per-line results and throughput
+ */
+public record BatchSaleResult(int accepted, int rejected, long elapsedMillis, double linesPerSecond,
+        List<SaleLineResult> lines) {
+}
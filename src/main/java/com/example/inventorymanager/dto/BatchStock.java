@@ -0,0 +1,7 @@
+package com.example.inventorymanager.dto;
+
+/**
+ * Quantity of one batch on hand at a point in time
+ */
+public record BatchStock(Long inventoryId, String batchCode, long quantity) {
+}
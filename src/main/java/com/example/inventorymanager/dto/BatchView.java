@@ -0,0 +1,29 @@
+package com.example.inventorymanager.dto;
+
+import com.example.inventorymanager.model.Inventory;
+
+import java.time.LocalDate;
+
+/**
+ * The batch fields the sale form needs (dropdown and available quantity).
+ * The quantity is the batch's unheld units: stock held by reservations is
+ * not offered.
+ */
+public record BatchView(Long id, String batchCode, Integer quantity, LocalDate expiryDate) {
+
+    public static BatchView of(Inventory inventory) {
+        return new BatchView(inventory.getId(), inventory.getBatchCode(), inventory.getQuantity() - inventory.getHeld(),
+                inventory.getExpiryDate());
+    }
+
+    public BatchView withQuantity(int newQuantity) {
+        return new BatchView(id, batchCode, newQuantity, expiryDate);
+    }
+
+    /**
+     * Sellable in the sale form: batches expiring today are no longer offered
+     */
+    public boolean isSellableOn(LocalDate date) {
+        return !Inventory.isExpired(expiryDate, date);
+    }
+}
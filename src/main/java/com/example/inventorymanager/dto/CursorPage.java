@@ -0,0 +1,51 @@
+package com.example.inventorymanager.dto;
+
+import org.springframework.data.domain.Window;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * One page of a keyset listing. Cursors are null at either end.
+ */
+public record CursorPage<T>(List<T> content, String previousCursor, String nextCursor) {
+
+    /**
+     * @param window   rows returned by a keyset scroll
+     * @param forward  whether the scroll went forward (first page or "after")
+     * @param resumed  whether the scroll started from a cursor
+     * @param cursorOf keyset position of a row
+     */
+    public static <T> CursorPage<T> of(Window<T> window, boolean forward, boolean resumed,
+            Function<T, KeysetCursor> cursorOf) {
+        return of(window.getContent(), window.hasNext(), forward, resumed, cursorOf);
+    }
+
+    /**
+     * @param content  rows in display order
+     * @param hasMore  whether more rows exist in the direction that was scrolled
+     * @param forward  whether the scroll went forward (first page or "after")
+     * @param resumed  whether the scroll started from a cursor
+     * @param cursorOf keyset position of a row
+     */
+    public static <T> CursorPage<T> of(List<T> content, boolean hasMore, boolean forward, boolean resumed,
+            Function<T, KeysetCursor> cursorOf) {
+        if (content.isEmpty()) {
+            return new CursorPage<>(content, null, null);
+        }
+        String first = cursorOf.apply(content.get(0)).toString();
+        String last = cursorOf.apply(content.get(content.size() - 1)).toString();
+        if (forward) {
+            return new CursorPage<>(content, resumed ? first : null, hasMore ? last : null);
+        }
+        return new CursorPage<>(content, hasMore ? first : null, last);
+    }
+
+    public boolean hasPrevious() {
+        return previousCursor != null;
+    }
+
+    public boolean hasNext() {
+        return nextCursor != null;
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.inventorymanager.dto;
+
+/**
+ * A rejected import row. {@code line} is the 1-based line in the file,
+ * counting the header.
+ */
+public record ImportRowError(long line, String error) {
+}
@@ -0,0 +1,11 @@
+package com.example.inventorymanager.dto;
+
+import java.util.List;
+
+/**
+ * Summary of a CSV inventory import. Only the first errors are listed;
+ * {@code failed} is the full count.
+ */
+public record InventoryImportResult(int imported, int failed, long elapsedMillis, double rowsPerSecond,
+        List<ImportRowError> errors) {
+}
@@ -0,0 +1,47 @@
+package com.example.inventorymanager.dto;
+
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Position in a keyset (seek) listing: the sort key of a row plus its id as
+ * tie-breaker, rendered as {@code <key>_<id>} for use in URLs.
+ */
+public record KeysetCursor(String key, Long id) {
+
+    public static KeysetCursor parse(String cursor) {
+        int split = cursor.lastIndexOf('_');
+        if (split < 0) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+        try {
+            return new KeysetCursor(cursor.substring(0, split), Long.valueOf(cursor.substring(split + 1)));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+    }
+
+    public static KeysetCursor of(Object key, Long id) {
+        return new KeysetCursor(String.valueOf(key), id);
+    }
+
+    /**
+     * Build the scroll position that continues after (forward) or before
+     * (backward) this row, converting the key back to the property's type
+     */
+    public KeysetScrollPosition toPosition(String keyProperty, Function<String, Object> keyType, boolean forward) {
+        Map<String, Object> keys = new LinkedHashMap<>();
+        keys.put(keyProperty, keyType.apply(key));
+        keys.put("id", id);
+        return forward ? ScrollPosition.forward(keys) : ScrollPosition.backward(keys);
+    }
+
+    @Override
+    public String toString() {
+        return key + "_" + id;
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.inventorymanager.dto;
+
+/**
+ * A batch as it appears in the stock movement ledger
+ */
+public record LedgerBatch(Long inventoryId, String batchCode) {
+}
@@ -0,0 +1,9 @@
+package com.example.inventorymanager.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * The few product fields a picker needs (sale form dropdown)
+ */
+public record ProductLookup(Long id, String name, String sku, BigDecimal price) {
+}
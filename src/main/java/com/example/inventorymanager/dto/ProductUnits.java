@@ -0,0 +1,7 @@
+package com.example.inventorymanager.dto;
+
+/**
+ * Sellable (non-expired) units on hand for one product
+ */
+public record ProductUnits(Long productId, String sku, Long units) {
+}
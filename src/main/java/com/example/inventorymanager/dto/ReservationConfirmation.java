@@ -0,0 +1,10 @@
+package com.example.inventorymanager.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Turn a reservation into a sale; {@code saleDate} defaults to today
+ */
+public record ReservationConfirmation(BigDecimal sellingPrice, LocalDate saleDate) {
+}
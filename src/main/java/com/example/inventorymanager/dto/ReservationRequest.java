@@ -0,0 +1,7 @@
+package com.example.inventorymanager.dto;
+
+/**
+ * Hold stock of a batch; {@code ttlSeconds} is optional
+ */
+public record ReservationRequest(Long productId, Long inventoryId, Integer quantity, Long ttlSeconds) {
+}
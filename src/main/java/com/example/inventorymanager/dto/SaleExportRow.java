@@ -0,0 +1,19 @@
+package com.example.inventorymanager.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * One exported sale, read as a projection so no entities are materialised
+ */
+public record SaleExportRow(Long id, LocalDate saleDate, Long productId, String productName, String sku,
+        Long inventoryId, String batchCode, Integer quantity, BigDecimal sellingPrice, LocalDateTime createdAt) {
+
+    @JsonProperty
+    public BigDecimal totalAmount() {
+        return sellingPrice.multiply(BigDecimal.valueOf(quantity));
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.inventorymanager.dto;
+
+import java.util.List;
+
+/**
+ * Progress of the write-behind sale journal. Sequences: the last entry
+ * written, the last one on disk (acknowledged), and the last one applied to
+ * the database.
+ */
+public record SaleJournalStatus(long journalId, boolean accepting, long writtenSequence, long durableSequence,
+        long appliedSequence, int pendingEntries, long appliedEntries, long rejectedEntries,
+        List<Rejection> recentRejections) {
+
+    /**
+     * An acknowledged entry the database refused when it was applied, e.g.
+     * because a direct sale took the stock first
+     */
+    public record Rejection(long sequence, long inventoryId, int quantity, String error) {
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.inventorymanager.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * One line of a bulk sale upload (POS end-of-day file)
+ */
+public record SaleLine(Long productId, Long inventoryId, Integer quantity, BigDecimal sellingPrice,
+        LocalDate saleDate) {
+}
@@ -0,0 +1,16 @@
+package com.example.inventorymanager.dto;
+
+/**
+ * Outcome of a single bulk sale line. {@code line} is the 1-based position in
+ * the uploaded list.
+ */
+public record SaleLineResult(int line, boolean accepted, Long saleId, String error) {
+
+    public static SaleLineResult accepted(int line, Long saleId) {
+        return new SaleLineResult(line, true, saleId, null);
+    }
+
+    public static SaleLineResult rejected(int line, String error) {
+        return new SaleLineResult(line, false, null, error);
+    }
+}
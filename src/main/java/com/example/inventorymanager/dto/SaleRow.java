@@ -0,0 +1,16 @@
+package com.example.inventorymanager.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * One row of the sales list: only the columns sales.html renders, read with a
+ * single joined query instead of full Sale/Product/Inventory entities
+ */
+public record SaleRow(Long id, LocalDate saleDate, String productName, String batchCode,
+        Integer quantity, BigDecimal sellingPrice) {
+
+    public BigDecimal totalAmount() {
+        return sellingPrice.multiply(BigDecimal.valueOf(quantity));
+    }
+}
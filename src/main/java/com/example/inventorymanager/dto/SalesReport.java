@@ -0,0 +1,12 @@
+package com.example.inventorymanager.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Sales totals for a date range (inclusive), served from the daily rollup
+ */
+public record SalesReport(LocalDate from, LocalDate to, String groupBy, long units, BigDecimal revenue,
+        long saleCount, List<SalesReportRow> rows) {
+}
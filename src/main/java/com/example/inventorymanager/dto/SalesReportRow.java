@@ -0,0 +1,25 @@
+package com.example.inventorymanager.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * One line of the sales report. Only the fields of the chosen grouping are
+ * set (day, product, or product and batch).
+ */
+public record SalesReportRow(LocalDate saleDate, Long productId, String productName, Long inventoryId,
+        String batchCode, Long units, BigDecimal revenue, Long saleCount) {
+
+    public SalesReportRow(LocalDate saleDate, Long units, BigDecimal revenue, Long saleCount) {
+        this(saleDate, null, null, null, null, units, revenue, saleCount);
+    }
+
+    public SalesReportRow(Long productId, String productName, Long units, BigDecimal revenue, Long saleCount) {
+        this(null, productId, productName, null, null, units, revenue, saleCount);
+    }
+
+    public SalesReportRow(Long productId, String productName, Long inventoryId, String batchCode,
+            Long units, BigDecimal revenue, Long saleCount) {
+        this(null, productId, productName, inventoryId, batchCode, units, revenue, saleCount);
+    }
+}
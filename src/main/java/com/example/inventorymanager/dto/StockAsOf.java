@@ -0,0 +1,10 @@
+package com.example.inventorymanager.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Stock of a product on hand at the end of a date, per batch
+ */
+public record StockAsOf(Long productId, LocalDate date, long quantity, List<BatchStock> batches) {
+}
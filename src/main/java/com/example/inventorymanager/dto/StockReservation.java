@@ -0,0 +1,10 @@
+package com.example.inventorymanager.dto;
+
+import java.time.Instant;
+
+/**
+ * Units of one batch held for an order until {@code expiresAt}
+ */
+public record StockReservation(String id, Long productId, Long inventoryId, String batchCode, int quantity,
+        Instant expiresAt) {
+}
@@ -0,0 +1,10 @@
+package com.example.inventorymanager.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * Stock levels over all products (dashboard)
+ */
+public record StockTotals(long products, long onHandUnits, long sellableUnits, long expiringSoonUnits,
+        BigDecimal stockValue) {
+}
@@ -0,0 +1,10 @@
+package com.example.inventorymanager.dto;
+
+import java.util.List;
+
+/**
+ * Current sellable batches of a product, pushed on the stock stream.
+ * {@code version} is the same stock version the batch API uses as its ETag.
+ */
+public record StockUpdate(Long productId, String version, List<BatchView> batches) {
+}
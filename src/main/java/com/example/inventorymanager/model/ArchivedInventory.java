@@ -0,0 +1,83 @@
+package com.example.inventorymanager.model;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.Immutable;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * A soft-deleted batch moved out of the inventory table by ArchiveService,
+ * once none of its sales are left in the sales table
+ */
+@Entity
+@Immutable
+@Table(name = "inventory_archive", indexes = @Index(name = "idx_inventory_archive_product", columnList = "product_id, batch_code"))
+public class ArchivedInventory {
+
+    @Id
+    private Long id;
+
+    @Column(nullable = false)
+    private Long productId;
+
+    private Integer quantity;
+
+    private LocalDate entryDate;
+
+    private LocalDate expiryDate;
+
+    private String batchCode;
+
+    private Long batchSequence;
+
+    private boolean deleted;
+
+    private boolean expired;
+
+    @Column(nullable = false)
+    private LocalDateTime archivedAt;
+
+    protected ArchivedInventory() {
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public Integer getQuantity() {
+        return quantity;
+    }
+
+    public LocalDate getEntryDate() {
+        return entryDate;
+    }
+
+    public LocalDate getExpiryDate() {
+        return expiryDate;
+    }
+
+    public String getBatchCode() {
+        return batchCode;
+    }
+
+    public Long getBatchSequence() {
+        return batchSequence;
+    }
+
+    public boolean isDeleted() {
+        return deleted;
+    }
+
+    public boolean isExpired() {
+        return expired;
+    }
+
+    public LocalDateTime getArchivedAt() {
+        return archivedAt;
+    }
+}
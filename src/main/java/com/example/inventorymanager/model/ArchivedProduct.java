@@ -0,0 +1,64 @@
+package com.example.inventorymanager.model;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.Immutable;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * A soft-deleted product moved out of the product table by ArchiveService,
+ * once it has no batches or sales left in the hot tables
+ */
+@Entity
+@Immutable
+@Table(name = "product_archive")
+public class ArchivedProduct {
+
+    @Id
+    private Long id;
+
+    private String name;
+
+    private String description;
+
+    private BigDecimal price;
+
+    private String sku;
+
+    private boolean deleted;
+
+    @Column(nullable = false)
+    private LocalDateTime archivedAt;
+
+    protected ArchivedProduct() {
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public BigDecimal getPrice() {
+        return price;
+    }
+
+    public String getSku() {
+        return sku;
+    }
+
+    public boolean isDeleted() {
+        return deleted;
+    }
+
+    public LocalDateTime getArchivedAt() {
+        return archivedAt;
+    }
+}
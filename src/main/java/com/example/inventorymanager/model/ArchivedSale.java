@@ -0,0 +1,86 @@
+package com.example.inventorymanager.model;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.Immutable;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * A sale moved out of the sales table by ArchiveService: soft-deleted, or
+ * older than the archive horizon. Same columns, plus when it was archived.
+ * Deleting its batch later still soft-deletes it here.
+ */
+@Entity
+@Immutable
+@Table(name = "sales_archive", indexes = {
+        @Index(name = "idx_sales_archive_product", columnList = "product_id, sale_date"),
+        @Index(name = "idx_sales_archive_date", columnList = "sale_date, id"),
+        @Index(name = "idx_sales_archive_inventory", columnList = "inventory_id, deleted") })
+public class ArchivedSale {
+
+    @Id
+    private Long id;
+
+    @Column(nullable = false)
+    private Long productId;
+
+    @Column(nullable = false)
+    private Long inventoryId;
+
+    @Column(nullable = false)
+    private Integer quantity;
+
+    @Column(nullable = false, precision = 10, scale = 2)
+    private BigDecimal sellingPrice;
+
+    @Column(nullable = false)
+    private LocalDate saleDate;
+
+    private boolean deleted;
+
+    private LocalDateTime createdAt;
+
+    @Column(nullable = false)
+    private LocalDateTime archivedAt;
+
+    protected ArchivedSale() {
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public Long getInventoryId() {
+        return inventoryId;
+    }
+
+    public Integer getQuantity() {
+        return quantity;
+    }
+
+    public BigDecimal getSellingPrice() {
+        return sellingPrice;
+    }
+
+    public LocalDate getSaleDate() {
+        return saleDate;
+    }
+
+    public boolean isDeleted() {
+        return deleted;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public LocalDateTime getArchivedAt() {
+        return archivedAt;
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.inventorymanager.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+/**
+ * Per-product counter for inventory batch sequences. {@code nextValue} is the
+ * first sequence not yet handed out to any node.
+ */
+@Entity
+@Table(name = "batch_sequence")
+public class BatchSequence {
+
+    @Id
+    private Long productId;
+
+    @Column(nullable = false)
+    private Long nextValue;
+
+    public BatchSequence() {
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public void setProductId(Long productId) {
+        this.productId = productId;
+    }
+
+    public Long getNextValue() {
+        return nextValue;
+    }
+
+    public void setNextValue(Long nextValue) {
+        this.nextValue = nextValue;
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.inventorymanager.model;
+
+import jakarta.persistence.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Sales totals for one batch on one day. Maintained incrementally by
+ * SaleService; product and date-range totals are sums over these rows.
+ */
+@Entity
+@Table(name = "daily_sales_rollup", uniqueConstraints = @UniqueConstraint(name = "uk_daily_sales_rollup_key", columnNames = {
+        "saleDate", "productId", "inventoryId" }), indexes = @Index(name = "idx_daily_sales_rollup_inventory", columnList = "inventory_id"))
+public class DailySalesRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private LocalDate saleDate;
+
+    @Column(nullable = false)
+    private Long productId;
+
+    @Column(nullable = false)
+    private Long inventoryId;
+
+    @Column(nullable = false)
+    private Long units;
+
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal revenue;
+
+    @Column(nullable = false)
+    private Long saleCount;
+
+    public DailySalesRollup() {
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public LocalDate getSaleDate() {
+        return saleDate;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public Long getInventoryId() {
+        return inventoryId;
+    }
+
+    public Long getUnits() {
+        return units;
+    }
+
+    public BigDecimal getRevenue() {
+        return revenue;
+    }
+
+    public Long getSaleCount() {
+        return saleCount;
+    }
+}
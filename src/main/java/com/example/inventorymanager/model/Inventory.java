@@ -8,20 +8,34 @@ import org.hibernate.annotations.SQLDelete;
 import org.hibernate.annotations.SQLRestriction;
 
 @Entity
-@SQLDelete(sql = "UPDATE inventory SET deleted = true WHERE id = ?")
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_inventory_batch_code", columnNames = "batchCode"),
+        indexes = {
+                // Batch list and keyset pages (ordered by batch code), counts per product
+                @Index(name = "idx_inventory_product_batch_code", columnList = "product_id, deleted, batch_code"),
+                // Sellable batches in FEFO order and the ACTIVE/EXPIRED filter
+                @Index(name = "idx_inventory_product_expired", columnList = "product_id, deleted, expired, expiry_date"),
+                // Expiry sweeper
+                @Index(name = "idx_inventory_expired_expiry", columnList = "expired, expiry_date") })
+@SQLDelete(sql = "UPDATE inventory SET deleted = true WHERE id = ? AND version = ?")
 @SQLRestriction("deleted = false")
 public class Inventory {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "inventory_seq")
+    @SequenceGenerator(name = "inventory_seq", sequenceName = "inventory_seq", allocationSize = 50)
     private Long id;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "product_id", nullable = false, foreignKey = @ForeignKey(name = "fk_inventory_product"))
     private Product product;
 
     private Integer quantity;
 
+    // Units held by stock reservations. Only InventoryRepository's conditional
+    // updates write it, so an entity flush (edit form, FEFO sale) never resets it
+    @Column(nullable = false, updatable = false)
+    private int held = 0;
+
     @DateTimeFormat(pattern = "yyyy-MM-dd")
     private LocalDate entryDate;
 
@@ -34,6 +48,12 @@ public class Inventory {
 
     private boolean deleted = false;
 
+    // Materialized expiry status, set on save and flipped by ExpirySweeper
+    private boolean expired = false;
+
+    @Version
+    private Long version;
+
     @Transient
     private Integer expiryDays;
 
@@ -64,6 +84,14 @@ public class Inventory {
         this.quantity = quantity;
     }
 
+    public int getHeld() {
+        return held;
+    }
+
+    public void setHeld(int held) {
+        this.held = held;
+    }
+
     public LocalDate getEntryDate() {
         return entryDate;
     }
@@ -96,6 +124,36 @@ public class Inventory {
         this.batchSequence = batchSequence;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public boolean isExpired() {
+        return expired;
+    }
+
+    public void setExpired(boolean expired) {
+        this.expired = expired;
+    }
+
+    /**
+     * The expiry rule: a batch is expired from its expiry date onwards.
+     * Batches without an expiry date never expire.
+     */
+    public static boolean isExpired(LocalDate expiryDate, LocalDate today) {
+        return expiryDate != null && !expiryDate.isAfter(today);
+    }
+
+    @PrePersist
+    @PreUpdate
+    void refreshExpired() {
+        expired = isExpired(expiryDate, LocalDate.now());
+    }
+
     public Integer getExpiryDays() {
         return expiryDays;
     }
@@ -0,0 +1,83 @@
+package com.example.inventorymanager.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import org.hibernate.annotations.Immutable;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Stock levels of one product, denormalized for the product list and the
+ * dashboard. A read model: written only by StockSummaryService, with SQL,
+ * in the transactions that move the stock.
+ *
+ * Units count live batches; sellable excludes expired batches, expiring soon
+ * is the sellable part expiring within the configured window, and the stock
+ * value is sellable units at the product's price.
+ */
+@Entity
+@Immutable
+@Table(name = "product_stock_summary", indexes = @Index(name = "idx_product_stock_summary_expiring", columnList = "expiring_soon_units"))
+public class ProductStockSummary {
+
+    @Id
+    private Long productId;
+
+    private String productName;
+
+    private String sku;
+
+    @Column(nullable = false)
+    private Long onHandUnits;
+
+    @Column(nullable = false)
+    private Long sellableUnits;
+
+    @Column(nullable = false)
+    private Long expiringSoonUnits;
+
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal stockValue;
+
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+
+    public ProductStockSummary() {
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public String getProductName() {
+        return productName;
+    }
+
+    public String getSku() {
+        return sku;
+    }
+
+    public Long getOnHandUnits() {
+        return onHandUnits;
+    }
+
+    public Long getSellableUnits() {
+        return sellableUnits;
+    }
+
+    public Long getExpiringSoonUnits() {
+        return expiringSoonUnits;
+    }
+
+    public BigDecimal getStockValue() {
+        return stockValue;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+}
@@ -11,19 +11,25 @@ import org.hibernate.annotations.SQLDelete;
 import org.hibernate.annotations.SQLRestriction;
 
 @Entity
-@Table(name = "sales")
+@Table(name = "sales", indexes = {
+        @Index(name = "idx_sales_product", columnList = "product_id, deleted, sale_date"),
+        @Index(name = "idx_sales_inventory", columnList = "inventory_id, deleted"),
+        // Keyset pages and exports ordered by (sale_date, id)
+        @Index(name = "idx_sales_date", columnList = "deleted, sale_date, id") })
 @SQLDelete(sql = "UPDATE sales SET deleted = true WHERE id = ?")
 @SQLRestriction("deleted = false")
 public class Sale {
+    // Pooled sequence instead of IDENTITY so Hibernate can batch inserts
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "sales_seq")
+    @SequenceGenerator(name = "sales_seq", sequenceName = "sales_seq", allocationSize = 50)
     private Long id;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "product_id", nullable = false, foreignKey = @ForeignKey(name = "fk_sale_product"))
     private Product product;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "inventory_id", nullable = false, foreignKey = @ForeignKey(name = "fk_sale_inventory"))
     private Inventory inventory;
 
@@ -0,0 +1,46 @@
+package com.example.inventorymanager.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+/**
+ * How far a sale journal has been applied to the database. Advanced in the
+ * same transaction as the sales it covers, so replay after a crash never
+ * applies an entry twice.
+ */
+@Entity
+@Table(name = "sale_journal_checkpoint")
+public class SaleJournalCheckpoint {
+
+    @Id
+    private Long journalId;
+
+    @Column(nullable = false)
+    private Long appliedSequence;
+
+    public SaleJournalCheckpoint() {
+    }
+
+    public SaleJournalCheckpoint(Long journalId, Long appliedSequence) {
+        this.journalId = journalId;
+        this.appliedSequence = appliedSequence;
+    }
+
+    public Long getJournalId() {
+        return journalId;
+    }
+
+    public void setJournalId(Long journalId) {
+        this.journalId = journalId;
+    }
+
+    public Long getAppliedSequence() {
+        return appliedSequence;
+    }
+
+    public void setAppliedSequence(Long appliedSequence) {
+        this.appliedSequence = appliedSequence;
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.inventorymanager.model;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.Immutable;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * One entry of the append-only stock ledger: a signed quantity change of a
+ * batch on a business date (entry date for receipts, sale date for sales and
+ * their reversals, the day of the change for adjustments). Rows are never
+ * updated or deleted; corrections are new entries.
+ */
+@Entity
+@Immutable
+@Table(name = "stock_movement", indexes = {
+        // Point-in-time tail scans per batch
+        @Index(name = "idx_stock_movement_inventory", columnList = "inventory_id, movement_date"),
+        // Batches of a product up to a date
+        @Index(name = "idx_stock_movement_product", columnList = "product_id, movement_date"),
+        // Snapshot job: batches moved since the last snapshot
+        @Index(name = "idx_stock_movement_date", columnList = "movement_date"),
+        // Snapshot job: backdated movements recorded since the last snapshot
+        @Index(name = "idx_stock_movement_created", columnList = "created_at") })
+public class StockMovement {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "stock_movement_seq")
+    @SequenceGenerator(name = "stock_movement_seq", sequenceName = "stock_movement_seq", allocationSize = 50)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private StockMovementType movementType;
+
+    @Column(nullable = false)
+    private Long productId;
+
+    @Column(nullable = false)
+    private Long inventoryId;
+
+    private String batchCode;
+
+    // Signed: positive adds stock, negative removes it
+    @Column(nullable = false)
+    private Integer quantity;
+
+    @Column(nullable = false)
+    private LocalDate movementDate;
+
+    private Long saleId;
+
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    protected StockMovement() {
+    }
+
+    public StockMovement(StockMovementType movementType, Long productId, Long inventoryId, String batchCode,
+            int quantity, LocalDate movementDate, Long saleId) {
+        this.movementType = movementType;
+        this.productId = productId;
+        this.inventoryId = inventoryId;
+        this.batchCode = batchCode;
+        this.quantity = quantity;
+        this.movementDate = movementDate;
+        this.saleId = saleId;
+    }
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public StockMovementType getMovementType() {
+        return movementType;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public Long getInventoryId() {
+        return inventoryId;
+    }
+
+    public String getBatchCode() {
+        return batchCode;
+    }
+
+    public Integer getQuantity() {
+        return quantity;
+    }
+
+    public LocalDate getMovementDate() {
+        return movementDate;
+    }
+
+    public Long getSaleId() {
+        return saleId;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+}
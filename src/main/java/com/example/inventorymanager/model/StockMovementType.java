@@ -0,0 +1,13 @@
+package com.example.inventorymanager.model;
+
+/**
+ * Kind of entry in the stock movement ledger
+ */
+public enum StockMovementType {
+    RECEIPT,
+    // Stock of a batch that existed before the ledger, as found at backfill
+    OPENING_BALANCE,
+    SALE,
+    SALE_REVERSAL,
+    ADJUSTMENT
+}
@@ -0,0 +1,62 @@
+package com.example.inventorymanager.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDate;
+
+/**
+ * Quantity of one batch on hand at the end of a day, folded from the stock
+ * movement ledger. Written by StockLedgerService; stock on a later date is
+ * this quantity plus the movements dated after it.
+ */
+@Entity
+@Table(name = "stock_snapshot", uniqueConstraints = @UniqueConstraint(name = "uk_stock_snapshot_key", columnNames = {
+        "inventory_id", "snapshot_date" }), indexes = @Index(name = "idx_stock_snapshot_date", columnList = "snapshot_date"))
+public class StockSnapshot {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long productId;
+
+    @Column(nullable = false)
+    private Long inventoryId;
+
+    @Column(nullable = false)
+    private LocalDate snapshotDate;
+
+    @Column(nullable = false)
+    private Long quantity;
+
+    protected StockSnapshot() {
+    }
+
+    public StockSnapshot(Long productId, Long inventoryId, LocalDate snapshotDate, long quantity) {
+        this.productId = productId;
+        this.inventoryId = inventoryId;
+        this.snapshotDate = snapshotDate;
+        this.quantity = quantity;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public Long getInventoryId() {
+        return inventoryId;
+    }
+
+    public LocalDate getSnapshotDate() {
+        return snapshotDate;
+    }
+
+    public Long getQuantity() {
+        return quantity;
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.inventorymanager.repository;
+
+import com.example.inventorymanager.model.ArchivedInventory;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ArchivedInventoryRepository extends JpaRepository<ArchivedInventory, Long> {
+
+    List<ArchivedInventory> findByProductIdOrderByBatchCode(Long productId);
+
+    // Moving rows out of the inventory table (ArchiveService)
+
+    /**
+     * Soft-deleted batches with no sales left in the sales table
+     */
+    @Query(value = "SELECT i.id FROM inventory i WHERE i.deleted = true "
+            + "AND NOT EXISTS (SELECT 1 FROM sales s WHERE s.inventory_id = i.id) FETCH FIRST :limit ROWS ONLY", nativeQuery = true)
+    List<Long> findArchivableInventoryIds(int limit);
+
+    @Query(value = "SELECT id FROM inventory WHERE id IN (:ids) FOR UPDATE", nativeQuery = true)
+    List<Long> lockInventory(List<Long> ids);
+
+    @Modifying
+    @Query(value = "INSERT INTO inventory_archive (id, product_id, quantity, entry_date, expiry_date, batch_code, batch_sequence, deleted, expired, archived_at) "
+            + "SELECT id, product_id, quantity, entry_date, expiry_date, batch_code, batch_sequence, deleted, expired, CURRENT_TIMESTAMP "
+            + "FROM inventory WHERE id IN (:ids)", nativeQuery = true)
+    int copyFromInventory(List<Long> ids);
+
+    @Modifying
+    @Query(value = "DELETE FROM inventory WHERE id IN (:ids)", nativeQuery = true)
+    int deleteFromInventory(List<Long> ids);
+}
@@ -0,0 +1,38 @@
+package com.example.inventorymanager.repository;
+
+import com.example.inventorymanager.model.ArchivedProduct;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ArchivedProductRepository extends JpaRepository<ArchivedProduct, Long> {
+
+    List<ArchivedProduct> findAllByOrderByName();
+
+    // Moving rows out of the product table (ArchiveService)
+
+    /**
+     * Soft-deleted products with no batches or sales left in the hot tables
+     */
+    @Query(value = "SELECT p.id FROM product p WHERE p.deleted = true "
+            + "AND NOT EXISTS (SELECT 1 FROM inventory i WHERE i.product_id = p.id) "
+            + "AND NOT EXISTS (SELECT 1 FROM sales s WHERE s.product_id = p.id) FETCH FIRST :limit ROWS ONLY", nativeQuery = true)
+    List<Long> findArchivableProductIds(int limit);
+
+    @Query(value = "SELECT id FROM product WHERE id IN (:ids) FOR UPDATE", nativeQuery = true)
+    List<Long> lockProducts(List<Long> ids);
+
+    @Modifying
+    @Query(value = "INSERT INTO product_archive (id, name, description, price, sku, deleted, archived_at) "
+            + "SELECT id, name, description, price, sku, deleted, CURRENT_TIMESTAMP "
+            + "FROM product WHERE id IN (:ids)", nativeQuery = true)
+    int copyFromProducts(List<Long> ids);
+
+    @Modifying
+    @Query(value = "DELETE FROM product WHERE id IN (:ids)", nativeQuery = true)
+    int deleteFromProducts(List<Long> ids);
+}
@@ -0,0 +1,75 @@
+package com.example.inventorymanager.repository;
+
+import com.example.inventorymanager.dto.SaleExportRow;
+import com.example.inventorymanager.model.ArchivedSale;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Stream;
+
+@Repository
+public interface ArchivedSaleRepository extends JpaRepository<ArchivedSale, Long> {
+
+    @Query("SELECT s FROM ArchivedSale s WHERE s.saleDate BETWEEN :from AND :to "
+            + "AND (:productId IS NULL OR s.productId = :productId) ORDER BY s.saleDate, s.id")
+    List<ArchivedSale> findHistory(LocalDate from, LocalDate to, Long productId, Pageable pageable);
+
+    /**
+     * Forward-only stream of the live archived sales for export, in the same
+     * order as SaleRepository.streamForExport so the two can be merged. Must
+     * be consumed inside a transaction and closed.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false") })
+    @Query("SELECT new com.example.inventorymanager.dto.SaleExportRow(s.id, s.saleDate, p.id, p.name, p.sku, "
+            + "i.id, i.batchCode, s.quantity, s.sellingPrice, s.createdAt) "
+            + "FROM ArchivedSale s JOIN Product p ON p.id = s.productId JOIN Inventory i ON i.id = s.inventoryId "
+            + "WHERE s.deleted = false AND s.saleDate BETWEEN :from AND :to "
+            + "AND (:productId IS NULL OR s.productId = :productId) "
+            + "ORDER BY s.saleDate, s.id")
+    Stream<SaleExportRow> streamForExport(LocalDate from, LocalDate to, Long productId);
+
+    /**
+     * Archived sales still counted as sales (not soft-deleted)
+     */
+    @Query(value = "SELECT COUNT(*) FROM sales_archive WHERE product_id = :productId AND deleted = false", nativeQuery = true)
+    long countLiveByProductId(Long productId);
+
+    /**
+     * Soft-delete the archived sales of a deleted batch, as the hot ones are
+     */
+    @Modifying
+    @Query(value = "UPDATE sales_archive SET deleted = true WHERE inventory_id = :inventoryId AND deleted = false", nativeQuery = true)
+    int deleteByInventoryId(Long inventoryId);
+
+    // Moving rows out of the sales table (ArchiveService)
+
+    @Query(value = "SELECT id FROM sales WHERE deleted = true FETCH FIRST :limit ROWS ONLY", nativeQuery = true)
+    List<Long> findDeletedSaleIds(int limit);
+
+    @Query(value = "SELECT id FROM sales WHERE deleted = false AND sale_date < :before FETCH FIRST :limit ROWS ONLY", nativeQuery = true)
+    List<Long> findAgedSaleIds(LocalDate before, int limit);
+
+    @Query(value = "SELECT id FROM sales WHERE id IN (:ids) FOR UPDATE", nativeQuery = true)
+    List<Long> lockSales(List<Long> ids);
+
+    @Modifying
+    @Query(value = "INSERT INTO sales_archive (id, product_id, inventory_id, quantity, selling_price, sale_date, deleted, created_at, archived_at) "
+            + "SELECT id, product_id, inventory_id, quantity, selling_price, sale_date, deleted, created_at, CURRENT_TIMESTAMP "
+            + "FROM sales WHERE id IN (:ids)", nativeQuery = true)
+    int copyFromSales(List<Long> ids);
+
+    @Modifying
+    @Query(value = "DELETE FROM sales WHERE id IN (:ids)", nativeQuery = true)
+    int deleteFromSales(List<Long> ids);
+}
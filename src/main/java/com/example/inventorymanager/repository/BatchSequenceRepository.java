@@ -0,0 +1,24 @@
+package com.example.inventorymanager.repository;
+
+import com.example.inventorymanager.model.BatchSequence;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface BatchSequenceRepository extends JpaRepository<BatchSequence, Long> {
+
+    @Modifying
+    @Query("UPDATE BatchSequence s SET s.nextValue = s.nextValue + :count WHERE s.productId = :productId")
+    int advance(Long productId, long count);
+
+    @Query("SELECT s.nextValue FROM BatchSequence s WHERE s.productId = :productId")
+    Optional<Long> findNextValue(Long productId);
+
+    @Modifying
+    @Query(value = "INSERT INTO batch_sequence (product_id, next_value) VALUES (:productId, :nextValue)", nativeQuery = true)
+    void insert(Long productId, long nextValue);
+}
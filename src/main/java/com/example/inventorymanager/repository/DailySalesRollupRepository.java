@@ -0,0 +1,65 @@
+package com.example.inventorymanager.repository;
+
+import com.example.inventorymanager.dto.SalesReportRow;
+import com.example.inventorymanager.model.DailySalesRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface DailySalesRollupRepository extends JpaRepository<DailySalesRollup, Long> {
+
+    /**
+     * Add a delta to one day/batch row, inserting the row on its first sale
+     */
+    @Modifying
+    @Query(value = "MERGE INTO daily_sales_rollup t USING (SELECT CAST(:saleDate AS DATE) AS sale_date, "
+            + "CAST(:productId AS BIGINT) AS product_id, CAST(:inventoryId AS BIGINT) AS inventory_id) s "
+            + "ON t.sale_date = s.sale_date AND t.product_id = s.product_id AND t.inventory_id = s.inventory_id "
+            + "WHEN MATCHED THEN UPDATE SET units = t.units + :units, revenue = t.revenue + :revenue, "
+            + "sale_count = t.sale_count + :saleCount "
+            + "WHEN NOT MATCHED THEN INSERT (sale_date, product_id, inventory_id, units, revenue, sale_count) "
+            + "VALUES (s.sale_date, s.product_id, s.inventory_id, :units, :revenue, :saleCount)", nativeQuery = true)
+    int upsertDelta(LocalDate saleDate, Long productId, Long inventoryId, long units, BigDecimal revenue, long saleCount);
+
+    @Modifying
+    @Query("DELETE FROM DailySalesRollup r WHERE r.inventoryId = :inventoryId")
+    void deleteByInventoryId(Long inventoryId);
+
+    @Modifying
+    @Query("DELETE FROM DailySalesRollup r")
+    void deleteAllRows();
+
+    /**
+     * Replay the live sales, hot and archived, into the rollup (rebuild)
+     */
+    @Modifying
+    @Query(value = "INSERT INTO daily_sales_rollup (sale_date, product_id, inventory_id, units, revenue, sale_count) "
+            + "SELECT s.sale_date, s.product_id, s.inventory_id, SUM(s.quantity), SUM(s.selling_price * s.quantity), COUNT(*) "
+            + "FROM (SELECT sale_date, product_id, inventory_id, quantity, selling_price FROM sales WHERE deleted = false "
+            + "UNION ALL SELECT sale_date, product_id, inventory_id, quantity, selling_price FROM sales_archive WHERE deleted = false) s "
+            + "GROUP BY s.sale_date, s.product_id, s.inventory_id", nativeQuery = true)
+    int insertFromSales();
+
+    @Query("SELECT new com.example.inventorymanager.dto.SalesReportRow(r.saleDate, "
+            + "SUM(r.units), SUM(r.revenue), SUM(r.saleCount)) FROM DailySalesRollup r "
+            + "WHERE r.saleDate BETWEEN :from AND :to GROUP BY r.saleDate HAVING SUM(r.saleCount) > 0 ORDER BY r.saleDate")
+    List<SalesReportRow> totalsByDay(LocalDate from, LocalDate to);
+
+    @Query("SELECT new com.example.inventorymanager.dto.SalesReportRow(r.productId, p.name, "
+            + "SUM(r.units), SUM(r.revenue), SUM(r.saleCount)) FROM DailySalesRollup r JOIN Product p ON p.id = r.productId "
+            + "WHERE r.saleDate BETWEEN :from AND :to GROUP BY r.productId, p.name HAVING SUM(r.saleCount) > 0 ORDER BY SUM(r.revenue) DESC")
+    List<SalesReportRow> totalsByProduct(LocalDate from, LocalDate to);
+
+    @Query("SELECT new com.example.inventorymanager.dto.SalesReportRow(r.productId, p.name, r.inventoryId, i.batchCode, "
+            + "SUM(r.units), SUM(r.revenue), SUM(r.saleCount)) FROM DailySalesRollup r "
+            + "JOIN Product p ON p.id = r.productId JOIN Inventory i ON i.id = r.inventoryId "
+            + "WHERE r.saleDate BETWEEN :from AND :to GROUP BY r.productId, p.name, r.inventoryId, i.batchCode "
+            + "HAVING SUM(r.saleCount) > 0 ORDER BY p.name, i.batchCode")
+    List<SalesReportRow> totalsByBatch(LocalDate from, LocalDate to);
+}
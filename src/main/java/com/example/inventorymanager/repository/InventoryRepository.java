@@ -1,24 +1,181 @@
 package com.example.inventorymanager.repository;
 
+import com.example.inventorymanager.dto.BatchView;
+import com.example.inventorymanager.dto.ProductUnits;
 import com.example.inventorymanager.model.Inventory;
-import com.example.inventorymanager.model.Product;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface InventoryRepository extends JpaRepository<Inventory, Long>, JpaSpecificationExecutor<Inventory> {
+    // Explicit queries: the derived ones join Product to read its ID and miss the product_id indexes
+    @org.springframework.data.jpa.repository.Query(value = "SELECT i FROM Inventory i WHERE i.product.id = :productId",
+            countQuery = "SELECT COUNT(i) FROM Inventory i WHERE i.product.id = :productId")
     Page<Inventory> findByProductId(Long productId, Pageable pageable);
 
-    Optional<Inventory> findTopByProductOrderByBatchSequenceDesc(Product product);
+    /**
+     * Highest batch sequence ever issued for a product, soft-deleted and
+     * archived batches included (their batch codes still exist). Only used to
+     * seed the batch_sequence counter the first time a product receives stock.
+     */
+    @org.springframework.data.jpa.repository.Query(value = "SELECT GREATEST(COALESCE(MAX(batch_sequence), 0), "
+            + "(SELECT COALESCE(MAX(a.batch_sequence), 0) FROM inventory_archive a WHERE a.product_id = :productId)) "
+            + "FROM inventory WHERE product_id = :productId", nativeQuery = true)
+    long findMaxBatchSequenceIncludingDeleted(Long productId);
 
     long countByProductId(Long productId);
 
+    @org.springframework.data.jpa.repository.Query("SELECT i FROM Inventory i WHERE i.product.id = :productId AND i.quantity > :quantity")
+    List<Inventory> findByProductIdAndQuantityGreaterThan(Long productId, int quantity);
+
+    /**
+     * Batches without any stock ledger entry (created before the ledger existed)
+     */
+    @org.springframework.data.jpa.repository.Query("SELECT i FROM Inventory i WHERE NOT EXISTS "
+            + "(SELECT 1 FROM StockMovement m WHERE m.inventoryId = i.id)")
+    List<Inventory> findWithoutStockMovements();
+
+    /**
+     * Row-lock a batch, soft-deleted or not, for the rest of the transaction
+     * (stock ledger snapshots)
+     *
+     * @return the batch's product ID, or null if there is no such batch
+     */
+    @org.springframework.data.jpa.repository.Query(value = "SELECT product_id FROM inventory WHERE id = :id FOR UPDATE", nativeQuery = true)
+    Long findProductIdForUpdate(Long id);
+
     @org.springframework.data.jpa.repository.Modifying
     @org.springframework.data.jpa.repository.Query("UPDATE Inventory i SET i.deleted = true WHERE i.product.id = :productId")
     void deleteByProductId(Long productId);
+
+    /**
+     * Atomically deduct stock from a sellable batch of a product in a single
+     * statement, leaving the units held by reservations behind.
+     * Returns 0 when the batch is missing, belongs to another product, is
+     * expired or is short of unheld stock.
+     */
+    @org.springframework.data.jpa.repository.Modifying
+    @org.springframework.data.jpa.repository.Query("UPDATE Inventory i SET i.quantity = i.quantity - :amount, i.version = i.version + 1 "
+            + "WHERE i.id = :id AND i.product.id = :productId AND i.deleted = false AND i.expired = false "
+            + "AND i.quantity - i.held >= :amount")
+    int decrementQuantity(Long id, Long productId, int amount);
+
+    /**
+     * Atomically deduct units held by a reservation: they leave the batch's
+     * stock and its holds together. Returns 0 when the batch is missing,
+     * expired or does not hold that many units.
+     */
+    @org.springframework.data.jpa.repository.Modifying
+    @org.springframework.data.jpa.repository.Query("UPDATE Inventory i SET i.quantity = i.quantity - :amount, i.held = i.held - :amount, "
+            + "i.version = i.version + 1 "
+            + "WHERE i.id = :id AND i.deleted = false AND i.expired = false AND i.held >= :amount AND i.quantity >= :amount")
+    int decrementHeldQuantity(Long id, int amount);
+
+    /**
+     * Atomically hold unheld units of a sellable batch of a product for a
+     * reservation. Returns 0 when the batch is missing, belongs to another
+     * product, is expired or is short of unheld stock.
+     */
+    @org.springframework.data.jpa.repository.Modifying
+    @org.springframework.data.jpa.repository.Query("UPDATE Inventory i SET i.held = i.held + :amount, i.version = i.version + 1 "
+            + "WHERE i.id = :id AND i.product.id = :productId AND i.deleted = false AND i.expired = false "
+            + "AND i.quantity - i.held >= :amount")
+    int holdQuantity(Long id, Long productId, int amount);
+
+    /**
+     * Atomically give held units back to the batch's unheld stock
+     */
+    @org.springframework.data.jpa.repository.Modifying
+    @org.springframework.data.jpa.repository.Query("UPDATE Inventory i SET i.held = i.held - :amount, i.version = i.version + 1 "
+            + "WHERE i.id = :id AND i.held >= :amount")
+    int releaseHeld(Long id, int amount);
+
+    /**
+     * Drop every hold. Reservations live in memory, so holds left in the
+     * table by a previous run belong to nobody.
+     */
+    @org.springframework.data.jpa.repository.Modifying
+    @org.springframework.data.jpa.repository.Query(value = "UPDATE inventory SET held = 0 WHERE held > 0", nativeQuery = true)
+    int clearHolds();
+
+    /**
+     * Atomically return stock to a batch (sale reversals)
+     */
+    @org.springframework.data.jpa.repository.Modifying
+    @org.springframework.data.jpa.repository.Query("UPDATE Inventory i SET i.quantity = i.quantity + :amount, i.version = i.version + 1 "
+            + "WHERE i.id = :id AND i.deleted = false")
+    int incrementQuantity(Long id, int amount);
+
+    /**
+     * Sellable batches of a product in FEFO order (earliest expiry first, batches
+     * without expiry last), row-locked for the rest of the transaction
+     */
+    @org.springframework.data.jpa.repository.Lock(jakarta.persistence.LockModeType.PESSIMISTIC_WRITE)
+    @org.springframework.data.jpa.repository.Query("SELECT i FROM Inventory i WHERE i.product.id = :productId "
+            + "AND i.expired = false AND i.quantity > 0 "
+            + "ORDER BY i.expiryDate ASC NULLS LAST, i.batchSequence ASC")
+    List<Inventory> findSellableBatchesForUpdate(Long productId);
+
+    /**
+     * Products with a batch {@link #markExpired} would flag today
+     */
+    @org.springframework.data.jpa.repository.Query("SELECT DISTINCT i.product.id FROM Inventory i "
+            + "WHERE i.expired = false AND i.expiryDate <= :today")
+    List<Long> findProductIdsExpiringBy(LocalDate today);
+
+    /**
+     * Flag every batch whose expiry date has been reached
+     */
+    @org.springframework.data.jpa.repository.Modifying
+    @org.springframework.data.jpa.repository.Query("UPDATE Inventory i SET i.expired = true, i.version = i.version + 1 "
+            + "WHERE i.expired = false AND i.expiryDate <= :today")
+    int markExpired(LocalDate today);
+
+    /**
+     * Distinct expiry dates of batches that have not expired yet
+     */
+    @org.springframework.data.jpa.repository.Query("SELECT DISTINCT i.expiryDate FROM Inventory i "
+            + "WHERE i.expired = false AND i.expiryDate IS NOT NULL")
+    List<LocalDate> findUpcomingExpiryDates();
+
+    /**
+     * Batches of a product with unheld stock as batch API rows (expired ones
+     * included; the caller filters by date)
+     */
+    @org.springframework.data.jpa.repository.Query("SELECT new com.example.inventorymanager.dto.BatchView(i.id, i.batchCode, i.quantity - i.held, i.expiryDate) "
+            + "FROM Inventory i WHERE i.product.id = :productId AND i.quantity > i.held")
+    List<BatchView> findBatchViewsInStock(Long productId);
+
+    /**
+     * Read the current quantity straight from the database, bypassing any
+     * entity already held in the persistence context
+     */
+    @org.springframework.data.jpa.repository.Query("SELECT i.quantity FROM Inventory i WHERE i.id = :id")
+    Optional<Integer> findQuantityById(Long id);
+
+    /**
+     * Units of a batch held by reservations, read straight from the database
+     */
+    @org.springframework.data.jpa.repository.Query("SELECT i.held FROM Inventory i WHERE i.id = :id")
+    Optional<Integer> findHeldById(Long id);
+
+    /**
+     * Unheld units of a batch, read straight from the database
+     */
+    @org.springframework.data.jpa.repository.Query("SELECT i.quantity - i.held FROM Inventory i WHERE i.id = :id")
+    Optional<Integer> findAvailableQuantityById(Long id);
+
+    /**
+     * Units in non-expired batches per product (0 for products without stock)
+     */
+    @org.springframework.data.jpa.repository.Query("SELECT new com.example.inventorymanager.dto.ProductUnits(p.id, p.sku, COALESCE(SUM(i.quantity), 0)) "
+            + "FROM Product p LEFT JOIN Inventory i ON i.product = p AND i.expired = false GROUP BY p.id, p.sku")
+    List<ProductUnits> sumSellableUnitsByProduct();
 }
@@ -1,13 +1,43 @@
 package com.example.inventorymanager.repository;
 
+import com.example.inventorymanager.dto.ProductLookup;
 import com.example.inventorymanager.model.Product;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 @Repository
 public interface ProductRepository extends JpaRepository<Product, Long> {
-    Page<Product> findByNameContainingIgnoreCaseOrDescriptionContainingIgnoreCase(String name, String description,
-            Pageable pageable);
+
+    // Query cache region for catalogue listings; evicted by ProductCatalogueCache
+    String CATALOGUE_REGION = "product-catalogue";
+
+    @Override
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = CATALOGUE_REGION) })
+    List<Product> findAll();
+
+    @Override
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = CATALOGUE_REGION) })
+    Page<Product> findAll(Pageable pageable);
+
+    @Override
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = CATALOGUE_REGION) })
+    List<Product> findAllById(Iterable<Long> ids);
+
+    @Query("SELECT new com.example.inventorymanager.dto.ProductLookup(p.id, p.name, p.sku, p.price) "
+            + "FROM Product p ORDER BY p.name, p.id")
+    List<ProductLookup> findLookup();
 }
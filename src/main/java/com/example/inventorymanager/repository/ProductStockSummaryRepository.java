@@ -0,0 +1,84 @@
+package com.example.inventorymanager.repository;
+
+import com.example.inventorymanager.dto.StockTotals;
+import com.example.inventorymanager.model.ProductStockSummary;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface ProductStockSummaryRepository extends JpaRepository<ProductStockSummary, Long> {
+
+    // The summary of each live product from its live batches, for rebuild and
+    // refresh. Batches expiring on or before :horizon count as expiring soon.
+    String SUMMARY_SELECT = "SELECT p.id AS product_id, p.name AS product_name, p.sku AS sku, "
+            + "COALESCE(SUM(i.quantity), 0) AS on_hand_units, "
+            + "COALESCE(SUM(CASE WHEN i.expired = false THEN i.quantity ELSE 0 END), 0) AS sellable_units, "
+            + "COALESCE(SUM(CASE WHEN i.expired = false AND i.expiry_date <= :horizon THEN i.quantity ELSE 0 END), 0) "
+            + "AS expiring_soon_units, "
+            + "COALESCE(SUM(CASE WHEN i.expired = false THEN i.quantity ELSE 0 END), 0) * COALESCE(p.price, 0) AS stock_value "
+            + "FROM product p LEFT JOIN inventory i ON i.product_id = p.id AND i.deleted = false "
+            + "WHERE p.deleted = false ";
+
+    String SUMMARY_GROUP_BY = "GROUP BY p.id, p.name, p.sku, p.price";
+
+    /**
+     * Apply a stock movement of one batch to its product's row, classified by
+     * the batch's current expiry state. Returns 0 if the product has no row.
+     */
+    @Modifying
+    @Query(value = "UPDATE product_stock_summary SET on_hand_units = on_hand_units + :delta, "
+            + "sellable_units = sellable_units + (SELECT CASE WHEN i.expired = false THEN :delta ELSE 0 END "
+            + "FROM inventory i WHERE i.id = :inventoryId), "
+            + "expiring_soon_units = expiring_soon_units + (SELECT CASE WHEN i.expired = false "
+            + "AND i.expiry_date <= :horizon THEN :delta ELSE 0 END FROM inventory i WHERE i.id = :inventoryId), "
+            + "stock_value = stock_value + (SELECT CASE WHEN i.expired = false THEN :delta * COALESCE(p.price, 0) ELSE 0 END "
+            + "FROM inventory i JOIN product p ON p.id = i.product_id WHERE i.id = :inventoryId), "
+            + "updated_at = CURRENT_TIMESTAMP "
+            + "WHERE product_id = (SELECT i.product_id FROM inventory i WHERE i.id = :inventoryId)", nativeQuery = true)
+    int adjust(Long inventoryId, int delta, LocalDate horizon);
+
+    /**
+     * Lock a product's row, so a recompute sees every delta committed before it
+     */
+    @Query(value = "SELECT product_id FROM product_stock_summary WHERE product_id = :productId FOR UPDATE", nativeQuery = true)
+    Long lockRow(Long productId);
+
+    @Modifying
+    @Query(value = "MERGE INTO product_stock_summary t USING (" + SUMMARY_SELECT + "AND p.id = :productId "
+            + SUMMARY_GROUP_BY + ") s ON t.product_id = s.product_id "
+            + "WHEN MATCHED THEN UPDATE SET product_name = s.product_name, sku = s.sku, "
+            + "on_hand_units = s.on_hand_units, sellable_units = s.sellable_units, "
+            + "expiring_soon_units = s.expiring_soon_units, stock_value = s.stock_value, updated_at = CURRENT_TIMESTAMP "
+            + "WHEN NOT MATCHED THEN INSERT (product_id, product_name, sku, on_hand_units, sellable_units, "
+            + "expiring_soon_units, stock_value, updated_at) VALUES (s.product_id, s.product_name, s.sku, "
+            + "s.on_hand_units, s.sellable_units, s.expiring_soon_units, s.stock_value, CURRENT_TIMESTAMP)",
+            nativeQuery = true)
+    int refreshProduct(Long productId, LocalDate horizon);
+
+    @Modifying
+    @Query(value = "INSERT INTO product_stock_summary (product_id, product_name, sku, on_hand_units, sellable_units, "
+            + "expiring_soon_units, stock_value, updated_at) SELECT s.product_id, s.product_name, s.sku, "
+            + "s.on_hand_units, s.sellable_units, s.expiring_soon_units, s.stock_value, CURRENT_TIMESTAMP FROM ("
+            + SUMMARY_SELECT + SUMMARY_GROUP_BY + ") s", nativeQuery = true)
+    int insertAll(LocalDate horizon);
+
+    @Modifying
+    @Query("DELETE FROM ProductStockSummary s WHERE s.productId = :productId")
+    void deleteByProductId(Long productId);
+
+    @Modifying
+    @Query("DELETE FROM ProductStockSummary s")
+    void deleteAllRows();
+
+    @Query("SELECT new com.example.inventorymanager.dto.StockTotals(COUNT(s), COALESCE(SUM(s.onHandUnits), 0), "
+            + "COALESCE(SUM(s.sellableUnits), 0), COALESCE(SUM(s.expiringSoonUnits), 0), "
+            + "COALESCE(SUM(s.stockValue), 0)) FROM ProductStockSummary s")
+    StockTotals totals();
+
+    List<ProductStockSummary> findTop5ByExpiringSoonUnitsGreaterThanOrderByExpiringSoonUnitsDesc(long units);
+}
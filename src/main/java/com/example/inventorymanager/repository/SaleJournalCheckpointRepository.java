@@ -0,0 +1,21 @@
+package com.example.inventorymanager.repository;
+
+import com.example.inventorymanager.model.SaleJournalCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface SaleJournalCheckpointRepository extends JpaRepository<SaleJournalCheckpoint, Long> {
+
+    @Modifying
+    @Query("UPDATE SaleJournalCheckpoint c SET c.appliedSequence = :sequence "
+            + "WHERE c.journalId = :journalId AND c.appliedSequence < :sequence")
+    int advance(Long journalId, long sequence);
+
+    @Query("SELECT c.appliedSequence FROM SaleJournalCheckpoint c WHERE c.journalId = :journalId")
+    Optional<Long> findAppliedSequence(Long journalId);
+}
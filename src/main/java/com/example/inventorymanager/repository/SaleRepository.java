@@ -1,15 +1,76 @@
 package com.example.inventorymanager.repository;
 
+import com.example.inventorymanager.dto.SaleExportRow;
+import com.example.inventorymanager.dto.SaleRow;
 import com.example.inventorymanager.model.Sale;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
 @Repository
 public interface SaleRepository extends JpaRepository<Sale, Long> {
+    String SALE_ROW = "SELECT new com.example.inventorymanager.dto.SaleRow(s.id, s.saleDate, p.name, i.batchCode, "
+            + "s.quantity, s.sellingPrice) FROM Sale s JOIN s.product p JOIN s.inventory i ";
+
     Page<Sale> findByProductId(Long productId, Pageable pageable);
 
+    /**
+     * Sale with its product and batch in one query (edit form, update, delete)
+     */
+    @Override
+    @EntityGraph(attributePaths = { "product", "inventory" })
+    Optional<Sale> findById(Long id);
+
+    /**
+     * Offset page of sales list rows (any Sale attribute can be sorted on)
+     */
+    @Query(value = SALE_ROW, countQuery = "SELECT COUNT(s) FROM Sale s")
+    Page<SaleRow> findSaleRows(Pageable pageable);
+
+    // Keyset (seek) pages of sales list rows on (saleDate, id); no COUNT is issued
+
+    @Query(SALE_ROW + "ORDER BY s.saleDate DESC, s.id DESC")
+    List<SaleRow> findFirstSaleRowsDesc(Limit limit);
+
+    @Query(SALE_ROW + "ORDER BY s.saleDate ASC, s.id ASC")
+    List<SaleRow> findFirstSaleRowsAsc(Limit limit);
+
+    // The leading saleDate bound lets the (deleted, sale_date, id) index seek to the cursor
+    @Query(SALE_ROW + "WHERE s.saleDate <= :saleDate AND (s.saleDate < :saleDate OR s.id < :id) "
+            + "ORDER BY s.saleDate DESC, s.id DESC")
+    List<SaleRow> findSaleRowsBefore(LocalDate saleDate, Long id, Limit limit);
+
+    @Query(SALE_ROW + "WHERE s.saleDate >= :saleDate AND (s.saleDate > :saleDate OR s.id > :id) "
+            + "ORDER BY s.saleDate ASC, s.id ASC")
+    List<SaleRow> findSaleRowsAfter(LocalDate saleDate, Long id, Limit limit);
+
+    /**
+     * Forward-only stream of sales for export, oldest first. Must be consumed
+     * inside a transaction and closed.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false") })
+    @Query("SELECT new com.example.inventorymanager.dto.SaleExportRow(s.id, s.saleDate, p.id, p.name, p.sku, "
+            + "i.id, i.batchCode, s.quantity, s.sellingPrice, s.createdAt) "
+            + "FROM Sale s JOIN s.product p JOIN s.inventory i "
+            + "WHERE s.saleDate BETWEEN :from AND :to AND (:productId IS NULL OR p.id = :productId) "
+            + "ORDER BY s.saleDate, s.id")
+    Stream<SaleExportRow> streamForExport(LocalDate from, LocalDate to, Long productId);
+
     Page<Sale> findByInventoryId(Long inventoryId, Pageable pageable);
 
     long countByProductId(Long productId);
@@ -0,0 +1,49 @@
+package com.example.inventorymanager.repository;
+
+import com.example.inventorymanager.dto.LedgerBatch;
+import com.example.inventorymanager.model.StockMovement;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface StockMovementRepository extends JpaRepository<StockMovement, Long> {
+
+    /**
+     * Batches of a product with any ledger entry up to a date
+     */
+    @Query("SELECT DISTINCT new com.example.inventorymanager.dto.LedgerBatch(m.inventoryId, m.batchCode) "
+            + "FROM StockMovement m WHERE m.productId = :productId AND m.movementDate <= :date "
+            + "ORDER BY m.batchCode, m.inventoryId")
+    List<LedgerBatch> findBatches(Long productId, LocalDate date);
+
+    @Query("SELECT COALESCE(SUM(m.quantity), 0) FROM StockMovement m WHERE m.inventoryId = :inventoryId "
+            + "AND m.movementDate <= :date")
+    long sumUpTo(Long inventoryId, LocalDate date);
+
+    /**
+     * Movements after a snapshot date (exclusive) up to a date (inclusive)
+     */
+    @Query("SELECT COALESCE(SUM(m.quantity), 0) FROM StockMovement m WHERE m.inventoryId = :inventoryId "
+            + "AND m.movementDate > :after AND m.movementDate <= :date")
+    long sumBetween(Long inventoryId, LocalDate after, LocalDate date);
+
+    @Query("SELECT DISTINCT m.inventoryId FROM StockMovement m WHERE m.movementDate <= :date")
+    List<Long> findInventoryIdsMovedUpTo(LocalDate date);
+
+    @Query("SELECT DISTINCT m.inventoryId FROM StockMovement m WHERE m.movementDate > :after "
+            + "AND m.movementDate <= :date")
+    List<Long> findInventoryIdsMovedBetween(LocalDate after, LocalDate date);
+
+    /**
+     * Batches with a movement recorded since a time but dated on or before a
+     * date (backdated movements, which dropped the batch's later snapshots)
+     */
+    @Query("SELECT DISTINCT m.inventoryId FROM StockMovement m WHERE m.createdAt >= :recordedSince "
+            + "AND m.movementDate <= :date")
+    List<Long> findInventoryIdsRecordedSince(LocalDateTime recordedSince, LocalDate date);
+}
@@ -0,0 +1,29 @@
+package com.example.inventorymanager.repository;
+
+import com.example.inventorymanager.model.StockSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Optional;
+
+@Repository
+public interface StockSnapshotRepository extends JpaRepository<StockSnapshot, Long> {
+
+    Optional<StockSnapshot> findFirstByInventoryIdAndSnapshotDateLessThanEqualOrderBySnapshotDateDesc(
+            Long inventoryId, LocalDate date);
+
+    boolean existsByInventoryIdAndSnapshotDate(Long inventoryId, LocalDate snapshotDate);
+
+    @Query("SELECT MAX(s.snapshotDate) FROM StockSnapshot s")
+    LocalDate findLatestSnapshotDate();
+
+    /**
+     * Drop the snapshots a backdated movement made stale
+     */
+    @Modifying
+    @Query("DELETE FROM StockSnapshot s WHERE s.inventoryId = :inventoryId AND s.snapshotDate >= :from")
+    int deleteFrom(Long inventoryId, LocalDate from);
+}
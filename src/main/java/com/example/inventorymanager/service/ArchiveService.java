@@ -0,0 +1,144 @@
+package com.example.inventorymanager.service;
+
+import com.example.inventorymanager.dto.ArchiveResult;
+import com.example.inventorymanager.repository.ArchivedInventoryRepository;
+import com.example.inventorymanager.repository.ArchivedProductRepository;
+import com.example.inventorymanager.repository.ArchivedSaleRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+
+/**
+ * Moves rows out of the hot tables into the *_archive tables, so the hot
+ * tables and their indexes only hold live data:
+ *
+ *   sales      soft-deleted, or sold before the archive horizon
+ *   inventory  soft-deleted, once none of its sales are left in sales
+ *   product    soft-deleted, once none of its batches or sales are left
+ *
+ * Runs nightly (inventory.archive.cron) in chunks of
+ * inventory.archive.chunk-size rows, one short transaction per chunk. The
+ * rows of a chunk are locked before they are copied, so a concurrent edit
+ * either lands before the copy or finds the row gone. Archived rows are
+ * read through the history API; sales report totals are unaffected, since
+ * they come from daily_sales_rollup.
+ */
+@Service
+public class ArchiveService {
+
+    private static final Logger log = LoggerFactory.getLogger(ArchiveService.class);
+
+    private final ArchivedSaleRepository archivedSaleRepository;
+    private final ArchivedInventoryRepository archivedInventoryRepository;
+    private final ArchivedProductRepository archivedProductRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+    private final int salesHorizonDays;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public ArchiveService(ArchivedSaleRepository archivedSaleRepository,
+            ArchivedInventoryRepository archivedInventoryRepository,
+            ArchivedProductRepository archivedProductRepository, PlatformTransactionManager transactionManager,
+            @Value("${inventory.archive.chunk-size:500}") int chunkSize,
+            @Value("${inventory.archive.sales-horizon-days:730}") int salesHorizonDays) {
+        this.archivedSaleRepository = archivedSaleRepository;
+        this.archivedInventoryRepository = archivedInventoryRepository;
+        this.archivedProductRepository = archivedProductRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+        this.salesHorizonDays = salesHorizonDays;
+    }
+
+    @Scheduled(cron = "${inventory.archive.cron:0 30 1 * * *}")
+    public void scheduledArchive() {
+        if (running.get()) {
+            return;
+        }
+        archive();
+    }
+
+    /**
+     * Archive everything that qualifies now. Sales go first, since a batch or
+     * product only qualifies once its sales are gone.
+     */
+    public ArchiveResult archive() {
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("An archive run is already in progress");
+        }
+        try {
+            long start = System.nanoTime();
+            LocalDate horizon = LocalDate.now().minusDays(salesHorizonDays);
+
+            long sales = moveAll(archivedSaleRepository::findDeletedSaleIds, this::moveSales)
+                    + moveAll(limit -> archivedSaleRepository.findAgedSaleIds(horizon, limit), this::moveSales);
+            long inventory = moveAll(archivedInventoryRepository::findArchivableInventoryIds, this::moveInventory);
+            long products = moveAll(archivedProductRepository::findArchivableProductIds, this::moveProducts);
+
+            ArchiveResult result = new ArchiveResult(sales, inventory, products,
+                    (System.nanoTime() - start) / 1_000_000);
+            if (sales + inventory + products > 0) {
+                log.info("Archived {} sales, {} batches, {} products in {} ms", sales, inventory, products,
+                        result.elapsedMillis());
+            }
+            return result;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    /**
+     * Move chunks until the candidate query comes back short
+     */
+    private long moveAll(IntFunction<List<Long>> candidates, Function<List<Long>, Integer> move) {
+        long moved = 0;
+        int found;
+        do {
+            int[] counts = transactionTemplate.execute(status -> {
+                List<Long> ids = candidates.apply(chunkSize);
+                return new int[] { ids.size(), ids.isEmpty() ? 0 : move.apply(ids) };
+            });
+            found = counts[0];
+            moved += counts[1];
+        } while (found == chunkSize);
+        return moved;
+    }
+
+    private int moveSales(List<Long> ids) {
+        // Rows gone since the candidate query are skipped
+        List<Long> locked = archivedSaleRepository.lockSales(ids);
+        if (locked.isEmpty()) {
+            return 0;
+        }
+        archivedSaleRepository.copyFromSales(locked);
+        return archivedSaleRepository.deleteFromSales(locked);
+    }
+
+    private int moveInventory(List<Long> ids) {
+        List<Long> locked = archivedInventoryRepository.lockInventory(ids);
+        if (locked.isEmpty()) {
+            return 0;
+        }
+        archivedInventoryRepository.copyFromInventory(locked);
+        return archivedInventoryRepository.deleteFromInventory(locked);
+    }
+
+    private int moveProducts(List<Long> ids) {
+        List<Long> locked = archivedProductRepository.lockProducts(ids);
+        if (locked.isEmpty()) {
+            return 0;
+        }
+        archivedProductRepository.copyFromProducts(locked);
+        return archivedProductRepository.deleteFromProducts(locked);
+    }
+}
@@ -0,0 +1,250 @@
+package com.example.inventorymanager.service;
+
+import com.example.inventorymanager.dto.BatchView;
+import com.example.inventorymanager.model.Inventory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-process index of the sellable batches of each product, sorted by expiry
+ * (earliest first, no expiry last), with their unheld units. Lookups are a map read; the index is
+ * filled on the first miss per product and then kept up to date in place by
+ * InventoryService after each write commits.
+ *
+ * Reads are lock-free. Writes and cache fills are serialized on this object:
+ * a fill is only kept if no write committed (or was about to commit) while
+ * the batches were being loaded, so a fill can never hide a concurrent sale.
+ *
+ * Every committed write also bumps its product's stock version, used as the
+ * ETag of the batch availability API, and publishes the change on the
+ * StockEventBus. Both happen after the index itself is updated. Writers pass
+ * the product of the batch, so a write to a product that is not indexed yet
+ * still moves only that product's version.
+ */
+@Component
+public class AvailableBatchIndex {
+
+    private static final Comparator<BatchView> EXPIRY_ORDER = Comparator
+            .comparing(BatchView::expiryDate, Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparing(BatchView::id);
+
+    private final Map<Long, List<BatchView>> batchesByProduct = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    // Bumped by every applied write; pendingWrites counts transactions between beforeCommit and completion
+    private long generation;
+    private final AtomicInteger pendingWrites = new AtomicInteger();
+
+    // Versions restart on every boot, so they are prefixed with the boot time:
+    // a version handed out before a restart can never match one issued after it
+    private final Map<Long, Long> stockVersions = new ConcurrentHashMap<>();
+    private final long bootEpoch = System.currentTimeMillis();
+
+    private final StockEventBus stockEventBus;
+
+    public record Stats(long hits, long misses, int products, int batches) {
+    }
+
+    public AvailableBatchIndex(StockEventBus stockEventBus) {
+        this.stockEventBus = stockEventBus;
+    }
+
+    /**
+     * @return the sellable batches of a product, or null if it is not indexed yet
+     */
+    public List<BatchView> lookup(Long productId) {
+        List<BatchView> batches = batchesByProduct.get(productId);
+        if (batches == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+
+        // Sorted by expiry, so anything that has expired sits at the head
+        LocalDate today = LocalDate.now();
+        if (!batches.isEmpty() && !batches.get(0).isSellableOn(today)) {
+            List<BatchView> live = sellable(batches, today);
+            dropExpired(productId, batches, live);
+            return live;
+        }
+        return batches;
+    }
+
+    /**
+     * Current stock version of a product. Read it before loading the batches:
+     * any write committed afterwards moves it on.
+     */
+    public String stockVersion(Long productId) {
+        return bootEpoch + "." + stockVersions.getOrDefault(productId, 0L);
+    }
+
+    /**
+     * Start a cache fill; pass the returned token to {@link #completeLoad}
+     */
+    public synchronized long beginLoad() {
+        return pendingWrites.get() > 0 ? -1 : generation;
+    }
+
+    /**
+     * Store freshly loaded batches unless a write raced the load.
+     *
+     * @return the sellable batches, sorted by expiry
+     */
+    public List<BatchView> completeLoad(Long productId, long token, List<BatchView> loaded) {
+        List<BatchView> batches = new ArrayList<>(loaded);
+        batches.sort(EXPIRY_ORDER);
+        List<BatchView> live = sellable(batches, LocalDate.now());
+
+        synchronized (this) {
+            if (token >= 0 && token == generation && pendingWrites.get() == 0) {
+                batchesByProduct.put(productId, live);
+            }
+        }
+        return live;
+    }
+
+    /**
+     * A batch was created or edited
+     */
+    public void upsert(Inventory inventory) {
+        Long productId = inventory.getProduct().getId();
+        BatchView view = BatchView.of(inventory);
+        afterCommit(() -> {
+            batchesByProduct.computeIfPresent(productId, (id, batches) -> {
+                List<BatchView> updated = without(batches, view.id());
+                if (view.quantity() != null && view.quantity() > 0 && view.isSellableOn(LocalDate.now())) {
+                    updated.add(view);
+                    updated.sort(EXPIRY_ORDER);
+                }
+                return List.copyOf(updated);
+            });
+            stockChanged(productId);
+        });
+    }
+
+    /**
+     * A batch's unheld units moved by {@code delta} (sale, reversal, hold or
+     * release)
+     */
+    public void adjustQuantity(Long productId, Long inventoryId, int delta) {
+        afterCommit(() -> {
+            batchesByProduct.computeIfPresent(productId, (id, batches) -> {
+                List<BatchView> updated = new ArrayList<>(batches.size());
+                boolean found = false;
+                for (BatchView batch : batches) {
+                    if (batch.id().equals(inventoryId)) {
+                        found = true;
+                        int quantity = batch.quantity() + delta;
+                        if (quantity > 0) {
+                            updated.add(batch.withQuantity(quantity));
+                        }
+                    } else {
+                        updated.add(batch);
+                    }
+                }
+                // A batch that was empty (or fully held) came back: reload the product
+                return found || delta <= 0 ? List.copyOf(updated) : null;
+            });
+            stockChanged(productId);
+        });
+    }
+
+    /**
+     * A batch was deleted
+     */
+    public void remove(Long productId, Long inventoryId) {
+        afterCommit(() -> {
+            batchesByProduct.computeIfPresent(productId, (id, batches) -> List.copyOf(without(batches, inventoryId)));
+            stockChanged(productId);
+        });
+    }
+
+    /**
+     * Drop a whole product (e.g. product deleted with all its batches)
+     */
+    public void evictProduct(Long productId) {
+        afterCommit(() -> {
+            batchesByProduct.remove(productId);
+            stockChanged(productId);
+        });
+    }
+
+    public Stats stats() {
+        return new Stats(hits.sum(), misses.sum(), batchesByProduct.size(),
+                batchesByProduct.values().stream().mapToInt(List::size).sum());
+    }
+
+    // Called once the index reflects the write, so readers of the new version see the new batches
+    private void stockChanged(Long productId) {
+        stockVersions.merge(productId, 1L, Long::sum);
+        stockEventBus.publish(productId);
+    }
+
+    private synchronized void dropExpired(Long productId, List<BatchView> seen, List<BatchView> live) {
+        batchesByProduct.replace(productId, seen, live);
+    }
+
+    private synchronized void applyWrite(Runnable write) {
+        generation++;
+        write.run();
+    }
+
+    /**
+     * Apply an index write once the surrounding transaction commits, or right
+     * away when there is none. Rolled back writes never reach the index.
+     */
+    private void afterCommit(Runnable write) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            applyWrite(write);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            private boolean pending;
+
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                pendingWrites.incrementAndGet();
+                pending = true;
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                try {
+                    if (status == STATUS_COMMITTED) {
+                        applyWrite(write);
+                    }
+                } finally {
+                    if (pending) {
+                        pendingWrites.decrementAndGet();
+                    }
+                }
+            }
+        });
+    }
+
+    private static List<BatchView> sellable(List<BatchView> batches, LocalDate today) {
+        return batches.stream().filter(b -> b.isSellableOn(today)).toList();
+    }
+
+    private static List<BatchView> without(List<BatchView> batches, Long inventoryId) {
+        List<BatchView> result = new ArrayList<>(batches.size());
+        for (BatchView batch : batches) {
+            if (!batch.id().equals(inventoryId)) {
+                result.add(batch);
+            }
+        }
+        return result;
+    }
+}
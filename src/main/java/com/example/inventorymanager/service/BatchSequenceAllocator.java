@@ -0,0 +1,117 @@
+package com.example.inventorymanager.service;
+
+import com.example.inventorymanager.repository.BatchSequenceRepository;
+import com.example.inventorymanager.repository.InventoryRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Hands out per-product batch sequences without scanning the inventory table.
+ *
+ * Sequences are reserved from the batch_sequence counter row in blocks, in a
+ * short transaction of their own, and then served from memory. Concurrent
+ * receipts for the same product can never get the same sequence; a restart
+ * only leaves a gap for the unused part of a block.
+ *
+ * Callers reserve before starting the transaction that uses the sequences,
+ * so a refill never needs a second pooled connection while the caller holds
+ * one (with a busy pool, callers could otherwise wait on each other).
+ */
+@Component
+public class BatchSequenceAllocator {
+
+    private final BatchSequenceRepository batchSequenceRepository;
+    private final InventoryRepository inventoryRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int blockSize;
+
+    private final Map<Long, Block> blocks = new ConcurrentHashMap<>();
+
+    // [next, limit) of sequences reserved for this node. Guarded by a lock
+    // rather than synchronized: refills run a transaction, and a virtual
+    // thread blocking inside synchronized would pin its carrier thread.
+    private static final class Block {
+        final ReentrantLock lock = new ReentrantLock();
+        long next;
+        long limit;
+    }
+
+    public BatchSequenceAllocator(BatchSequenceRepository batchSequenceRepository,
+            InventoryRepository inventoryRepository,
+            PlatformTransactionManager transactionManager,
+            @Value("${inventory.batch-sequence.block-size:20}") int blockSize) {
+        this.batchSequenceRepository = batchSequenceRepository;
+        this.inventoryRepository = inventoryRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.blockSize = blockSize;
+    }
+
+    /**
+     * Next batch sequence for a product
+     */
+    public long next(Long productId) {
+        return allocate(productId, 1);
+    }
+
+    /**
+     * Reserve {@code count} consecutive batch sequences for a product. Must be
+     * called outside a transaction.
+     *
+     * @return the first sequence of the range
+     */
+    public long allocate(Long productId, int count) {
+        if (count <= 0) {
+            throw new IllegalArgumentException("Batch sequence count must be greater than 0");
+        }
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Reserve batch sequences before starting the transaction that uses them");
+        }
+        Block block = blocks.computeIfAbsent(productId, id -> new Block());
+        block.lock.lock();
+        try {
+            if (block.limit - block.next < count) {
+                long size = Math.max(count, blockSize);
+                block.limit = reserve(productId, size);
+                block.next = block.limit - size;
+            }
+            long first = block.next;
+            block.next += count;
+            return first;
+        } finally {
+            block.lock.unlock();
+        }
+    }
+
+    /**
+     * Advance the counter row by {@code size} in a short transaction.
+     *
+     * @return the exclusive end of the reserved range
+     */
+    private long reserve(Long productId, long size) {
+        try {
+            return transactionTemplate.execute(status -> reserveOrCreate(productId, size));
+        } catch (DataIntegrityViolationException e) {
+            // Another node created the counter row first; it exists now
+            return transactionTemplate.execute(status -> reserveOrCreate(productId, size));
+        }
+    }
+
+    private long reserveOrCreate(Long productId, long size) {
+        if (batchSequenceRepository.advance(productId, size) > 0) {
+            return batchSequenceRepository.findNextValue(productId)
+                    .orElseThrow(() -> new IllegalStateException("Batch sequence missing for product " + productId));
+        }
+        // First receipt for this product: continue after any existing batches
+        long end = inventoryRepository.findMaxBatchSequenceIncludingDeleted(productId) + 1 + size;
+        batchSequenceRepository.insert(productId, end);
+        return end;
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.inventorymanager.service;
+
+import com.example.inventorymanager.repository.InventoryRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Keeps the materialized Inventory.expired flag up to date.
+ *
+ * New and edited batches get the flag when they are saved; this component
+ * flips it for batches that expire afterwards. It keeps a min-queue of the
+ * distinct upcoming expiry dates, so a sweep only touches the table when the
+ * earliest date has been reached, and then with one indexed UPDATE.
+ */
+@Component
+public class ExpirySweeper {
+
+    private final InventoryRepository inventoryRepository;
+    private final StockSummaryService stockSummaryService;
+    private final TransactionTemplate transactionTemplate;
+
+    private final PriorityQueue<LocalDate> upcoming = new PriorityQueue<>();
+    private final Set<LocalDate> queued = new HashSet<>();
+
+    public ExpirySweeper(InventoryRepository inventoryRepository, StockSummaryService stockSummaryService,
+            PlatformTransactionManager transactionManager) {
+        this.inventoryRepository = inventoryRepository;
+        this.stockSummaryService = stockSummaryService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Catch up on anything that expired while the application was down, then
+     * queue the remaining expiry dates
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        markExpired(LocalDate.now());
+        List<LocalDate> dates = inventoryRepository.findUpcomingExpiryDates();
+        synchronized (this) {
+            dates.forEach(this::enqueue);
+        }
+    }
+
+    /**
+     * Register the expiry date of a saved batch
+     */
+    public synchronized void track(LocalDate expiryDate) {
+        if (expiryDate != null && expiryDate.isAfter(LocalDate.now())) {
+            enqueue(expiryDate);
+        }
+    }
+
+    /**
+     * Runs at midnight (configurable); a no-op unless a queued date is due
+     */
+    @Scheduled(cron = "${inventory.expiry.sweep-cron:0 0 0 * * *}")
+    public void sweep() {
+        LocalDate today = LocalDate.now();
+        synchronized (this) {
+            if (upcoming.isEmpty() || upcoming.peek().isAfter(today)) {
+                return;
+            }
+            while (!upcoming.isEmpty() && !upcoming.peek().isAfter(today)) {
+                queued.remove(upcoming.poll());
+            }
+        }
+        markExpired(today);
+    }
+
+    private void markExpired(LocalDate today) {
+        transactionTemplate.executeWithoutResult(status -> {
+            // Expired batches stop counting as sellable in the stock summary:
+            // only the products that had a batch flipped need their row redone
+            List<Long> productIds = inventoryRepository.findProductIdsExpiringBy(today);
+            if (inventoryRepository.markExpired(today) > 0) {
+                productIds.forEach(stockSummaryService::refreshProduct);
+            }
+        });
+    }
+
+    private void enqueue(LocalDate date) {
+        if (queued.add(date)) {
+            upcoming.add(date);
+        }
+    }
+}
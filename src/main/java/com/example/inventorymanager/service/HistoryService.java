@@ -0,0 +1,53 @@
+package com.example.inventorymanager.service;
+
+import com.example.inventorymanager.model.ArchivedInventory;
+import com.example.inventorymanager.model.ArchivedProduct;
+import com.example.inventorymanager.model.ArchivedSale;
+import com.example.inventorymanager.repository.ArchivedInventoryRepository;
+import com.example.inventorymanager.repository.ArchivedProductRepository;
+import com.example.inventorymanager.repository.ArchivedSaleRepository;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Read access to the rows ArchiveService moved to the *_archive tables
+ */
+@Service
+public class HistoryService {
+
+    private static final int MAX_PAGE_SIZE = 1000;
+
+    private final ArchivedSaleRepository archivedSaleRepository;
+    private final ArchivedInventoryRepository archivedInventoryRepository;
+    private final ArchivedProductRepository archivedProductRepository;
+
+    public HistoryService(ArchivedSaleRepository archivedSaleRepository,
+            ArchivedInventoryRepository archivedInventoryRepository,
+            ArchivedProductRepository archivedProductRepository) {
+        this.archivedSaleRepository = archivedSaleRepository;
+        this.archivedInventoryRepository = archivedInventoryRepository;
+        this.archivedProductRepository = archivedProductRepository;
+    }
+
+    /**
+     * Archived sales in a date range (open-ended when a bound is null),
+     * optionally of one product, oldest first
+     */
+    public List<ArchivedSale> getArchivedSales(LocalDate from, LocalDate to, Long productId, int page, int size) {
+        return archivedSaleRepository.findHistory(
+                from != null ? from : LocalDate.of(1900, 1, 1),
+                to != null ? to : LocalDate.of(9999, 12, 31),
+                productId, PageRequest.of(Math.max(page, 0), Math.min(Math.max(size, 1), MAX_PAGE_SIZE)));
+    }
+
+    public List<ArchivedInventory> getArchivedInventory(Long productId) {
+        return archivedInventoryRepository.findByProductIdOrderByBatchCode(productId);
+    }
+
+    public List<ArchivedProduct> getArchivedProducts() {
+        return archivedProductRepository.findAllByOrderByName();
+    }
+}
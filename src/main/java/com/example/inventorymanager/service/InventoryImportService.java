@@ -0,0 +1,317 @@
+package com.example.inventorymanager.service;
+
+import com.example.inventorymanager.dto.ImportRowError;
+import com.example.inventorymanager.dto.InventoryImportResult;
+import com.example.inventorymanager.model.Inventory;
+import com.example.inventorymanager.model.Product;
+import com.example.inventorymanager.repository.InventoryRepository;
+import com.example.inventorymanager.repository.ProductRepository;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Imports inventory receipts from CSV.
+ *
+ * The file is read one line at a time and saved in chunks, each in its own
+ * transaction, so memory is bounded by the chunk size rather than the file.
+ * Batch sequences are reserved once per product per chunk. If a chunk fails
+ * to commit its rows are retried one by one, so a bad row never rolls back
+ * the good ones.
+ *
+ * Columns (by header name): sku, quantity, entryDate, and optionally
+ * expiryDate or expiryDays. Dates are yyyy-MM-dd.
+ */
+@Service
+public class InventoryImportService {
+
+    private static final int MAX_REPORTED_ERRORS = 1000;
+
+    private final ProductRepository productRepository;
+    private final InventoryRepository inventoryRepository;
+    private final BatchSequenceAllocator batchSequenceAllocator;
+    private final AvailableBatchIndex availableBatchIndex;
+    private final ExpirySweeper expirySweeper;
+    private final StockLedgerService stockLedgerService;
+    private final StockSummaryService stockSummaryService;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+
+    // A parsed row waiting to be saved
+    private record Receipt(long line, Long productId, String sku, int quantity,
+            LocalDate entryDate, LocalDate expiryDate) {
+    }
+
+    public InventoryImportService(ProductRepository productRepository, InventoryRepository inventoryRepository,
+            BatchSequenceAllocator batchSequenceAllocator, AvailableBatchIndex availableBatchIndex,
+            ExpirySweeper expirySweeper, StockLedgerService stockLedgerService,
+            StockSummaryService stockSummaryService, EntityManager entityManager,
+            PlatformTransactionManager transactionManager,
+            @Value("${inventory.import.chunk-size:1000}") int chunkSize) {
+        this.productRepository = productRepository;
+        this.inventoryRepository = inventoryRepository;
+        this.batchSequenceAllocator = batchSequenceAllocator;
+        this.availableBatchIndex = availableBatchIndex;
+        this.expirySweeper = expirySweeper;
+        this.stockLedgerService = stockLedgerService;
+        this.stockSummaryService = stockSummaryService;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+    }
+
+    public InventoryImportResult importCsv(InputStream in) throws IOException {
+        long start = System.nanoTime();
+        Map<String, Product> productsBySku = productsBySku();
+        ImportProgress progress = new ImportProgress();
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        String header = reader.readLine();
+        if (header == null) {
+            throw new IllegalArgumentException("The file is empty");
+        }
+        Map<String, Integer> columns = columnIndexes(header);
+
+        List<Receipt> chunk = new ArrayList<>(chunkSize);
+        long lineNo = 1;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNo++;
+            if (line.isBlank()) {
+                continue;
+            }
+            try {
+                chunk.add(parse(lineNo, splitCsv(line), columns, productsBySku));
+            } catch (IllegalArgumentException e) {
+                progress.reject(lineNo, e.getMessage());
+            }
+            if (chunk.size() == chunkSize) {
+                saveChunk(chunk, progress);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            saveChunk(chunk, progress);
+        }
+
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        double rowsPerSecond = progress.imported * 1000.0 / Math.max(elapsedMillis, 1);
+        return new InventoryImportResult(progress.imported, progress.failed, elapsedMillis, rowsPerSecond,
+                progress.errors);
+    }
+
+    private Map<String, Product> productsBySku() {
+        Map<String, Product> productsBySku = new HashMap<>();
+        Set<String> ambiguous = new HashSet<>();
+        for (Product product : productRepository.findAll()) {
+            if (product.getSku() == null || product.getSku().isBlank()) {
+                continue;
+            }
+            String sku = product.getSku().trim().toUpperCase();
+            if (productsBySku.putIfAbsent(sku, product) != null) {
+                ambiguous.add(sku);
+            }
+        }
+        // A SKU shared by two products cannot identify either of them
+        ambiguous.forEach(productsBySku::remove);
+        return productsBySku;
+    }
+
+    private void saveChunk(List<Receipt> chunk, ImportProgress progress) {
+        // One sequence range per product, assigned in file order
+        Map<Long, Integer> countByProduct = new LinkedHashMap<>();
+        for (Receipt receipt : chunk) {
+            countByProduct.merge(receipt.productId(), 1, Integer::sum);
+        }
+        Map<Long, Long> nextSequence = new HashMap<>();
+        countByProduct.forEach((productId, count) ->
+                nextSequence.put(productId, batchSequenceAllocator.allocate(productId, count)));
+        Map<Receipt, Long> sequences = new HashMap<>();
+        for (Receipt receipt : chunk) {
+            sequences.put(receipt, nextSequence.merge(receipt.productId(), 1L, Long::sum) - 1);
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> insert(chunk, sequences, countByProduct.keySet()));
+            progress.imported += chunk.size();
+        } catch (RuntimeException e) {
+            entityManager.clear();
+            // Find the offending rows; the rest still commit
+            for (Receipt receipt : chunk) {
+                try {
+                    transactionTemplate.executeWithoutResult(status ->
+                            insert(List.of(receipt), sequences, Set.of(receipt.productId())));
+                    progress.imported++;
+                } catch (RuntimeException rowFailure) {
+                    entityManager.clear();
+                    progress.reject(receipt.line(), "Could not save batch " + batchCode(receipt,
+                            sequences.get(receipt)) + ". Check that the product SKU is unique.");
+                }
+            }
+        }
+    }
+
+    private void insert(List<Receipt> receipts, Map<Receipt, Long> sequences, Set<Long> productIds) {
+        List<Inventory> batches = new ArrayList<>(receipts.size());
+        for (Receipt receipt : receipts) {
+            long sequence = sequences.get(receipt);
+            Inventory inventory = new Inventory();
+            inventory.setProduct(entityManager.getReference(Product.class, receipt.productId()));
+            inventory.setQuantity(receipt.quantity());
+            inventory.setEntryDate(receipt.entryDate());
+            inventory.setExpiryDate(receipt.expiryDate());
+            inventory.setBatchSequence(sequence);
+            inventory.setBatchCode(batchCode(receipt, sequence));
+            batches.add(inventory);
+        }
+        inventoryRepository.saveAll(batches);
+        stockLedgerService.recordReceipts(batches);
+        inventoryRepository.flush();
+        productIds.forEach(stockSummaryService::refreshProduct);
+        // Keep the persistence context (shared with the request) from growing across chunks
+        entityManager.clear();
+        productIds.forEach(availableBatchIndex::evictProduct);
+        receipts.forEach(receipt -> expirySweeper.track(receipt.expiryDate()));
+    }
+
+    private static String batchCode(Receipt receipt, long sequence) {
+        return receipt.sku() + "-" + sequence;
+    }
+
+    private static Map<String, Integer> columnIndexes(String header) {
+        List<String> names = splitCsv(header);
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < names.size(); i++) {
+            columns.put(names.get(i).trim().toLowerCase(), i);
+        }
+        for (String required : List.of("sku", "quantity", "entrydate")) {
+            if (!columns.containsKey(required)) {
+                throw new IllegalArgumentException("Missing column: " + required);
+            }
+        }
+        return columns;
+    }
+
+    private static Receipt parse(long lineNo, List<String> fields, Map<String, Integer> columns,
+            Map<String, Product> productsBySku) {
+        String sku = field(fields, columns, "sku");
+        if (sku == null) {
+            throw new IllegalArgumentException("SKU is required");
+        }
+        Product product = productsBySku.get(sku.toUpperCase());
+        if (product == null) {
+            throw new IllegalArgumentException("Unknown or ambiguous SKU: " + sku);
+        }
+
+        String quantityText = field(fields, columns, "quantity");
+        int quantity;
+        try {
+            quantity = Integer.parseInt(quantityText);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid quantity: " + quantityText);
+        }
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Quantity must be greater than 0");
+        }
+
+        LocalDate entryDate = date(field(fields, columns, "entrydate"), "entryDate");
+        if (entryDate == null) {
+            throw new IllegalArgumentException("Entry date is required");
+        }
+        LocalDate expiryDate = date(field(fields, columns, "expirydate"), "expiryDate");
+        String expiryDays = field(fields, columns, "expirydays");
+        if (expiryDate == null && expiryDays != null) {
+            try {
+                expiryDate = entryDate.plusDays(Integer.parseInt(expiryDays));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid expiryDays: " + expiryDays);
+            }
+        }
+        if (expiryDate != null && expiryDate.isBefore(entryDate)) {
+            throw new IllegalArgumentException("Expiry date is before entry date");
+        }
+
+        // Batch codes use the SKU as stored on the product
+        return new Receipt(lineNo, product.getId(), product.getSku(), quantity, entryDate, expiryDate);
+    }
+
+    private static String field(List<String> fields, Map<String, Integer> columns, String name) {
+        Integer index = columns.get(name);
+        if (index == null || index >= fields.size()) {
+            return null;
+        }
+        String value = fields.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private static LocalDate date(String value, String column) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid " + column + ": " + value);
+        }
+    }
+
+    // Splits one CSV line, honouring double-quoted fields
+    private static List<String> splitCsv(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        fields.add(current.toString());
+        return fields;
+    }
+
+    private static final class ImportProgress {
+        int imported;
+        int failed;
+        final List<ImportRowError> errors = new ArrayList<>();
+
+        void reject(long line, String error) {
+            failed++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(new ImportRowError(line, error));
+            }
+        }
+    }
+}
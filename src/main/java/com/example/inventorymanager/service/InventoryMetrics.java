@@ -0,0 +1,59 @@
+package com.example.inventorymanager.service;
+
+import com.example.inventorymanager.dto.ProductUnits;
+import com.example.inventorymanager.repository.InventoryRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.MultiGauge;
+import io.micrometer.core.instrument.Tags;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Business metrics: rejected sales by reason, and sellable units per product.
+ *
+ * The unit gauges are refreshed on a schedule with one grouped query rather
+ * than on every scrape.
+ */
+@Component
+public class InventoryMetrics {
+
+    private final InventoryRepository inventoryRepository;
+    private final Counter insufficientStock;
+    private final Counter expiredBatch;
+    private final MultiGauge sellableUnits;
+
+    public InventoryMetrics(InventoryRepository inventoryRepository, MeterRegistry registry) {
+        this.inventoryRepository = inventoryRepository;
+        this.insufficientStock = Counter.builder("inventory.sale.rejections")
+                .description("Sales rejected for lack of stock or an expired batch")
+                .tag("reason", "insufficient_stock")
+                .register(registry);
+        this.expiredBatch = Counter.builder("inventory.sale.rejections")
+                .description("Sales rejected for lack of stock or an expired batch")
+                .tag("reason", "expired_batch")
+                .register(registry);
+        this.sellableUnits = MultiGauge.builder("inventory.sellable.units")
+                .description("Units on hand in non-expired batches")
+                .baseUnit("units")
+                .register(registry);
+    }
+
+    public void insufficientStock() {
+        insufficientStock.increment();
+    }
+
+    public void expiredBatch() {
+        expiredBatch.increment();
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.metrics.sellable-units-refresh-ms:30000}", initialDelay = 0)
+    public void refreshSellableUnits() {
+        sellableUnits.register(inventoryRepository.sumSellableUnitsByProduct().stream()
+                .<MultiGauge.Row<?>>map(row -> MultiGauge.Row.of(
+                        Tags.of("product_id", String.valueOf(row.productId()),
+                                "sku", row.sku() != null ? row.sku() : ""),
+                        row.units()))
+                .toList(), true);
+    }
+}
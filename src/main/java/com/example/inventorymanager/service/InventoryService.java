@@ -1,34 +1,73 @@
 package com.example.inventorymanager.service;
 
+import com.example.inventorymanager.dto.BatchView;
+import com.example.inventorymanager.dto.CursorPage;
+import com.example.inventorymanager.dto.KeysetCursor;
 import com.example.inventorymanager.model.Inventory;
 import com.example.inventorymanager.model.Product;
+import com.example.inventorymanager.repository.ArchivedSaleRepository;
 import com.example.inventorymanager.repository.InventoryRepository;
 import com.example.inventorymanager.repository.SaleRepository;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.util.StringUtils;
 
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 import jakarta.persistence.criteria.Predicate;
 
 @Service
+@Timed(value = "inventory.service", histogram = true)
 public class InventoryService {
 
     private final InventoryRepository inventoryRepository;
     private final SaleRepository saleRepository;
+    private final ArchivedSaleRepository archivedSaleRepository;
+    private final AvailableBatchIndex availableBatchIndex;
+    private final BatchSequenceAllocator batchSequenceAllocator;
+    private final SalesReportService salesReportService;
+    private final ExpirySweeper expirySweeper;
+    private final InventoryMetrics inventoryMetrics;
+    private final StockLedgerService stockLedgerService;
+    private final StockSummaryService stockSummaryService;
+    private final TransactionTemplate transactionTemplate;
 
     @Autowired
-    public InventoryService(InventoryRepository inventoryRepository, SaleRepository saleRepository) {
+    public InventoryService(InventoryRepository inventoryRepository, SaleRepository saleRepository,
+            ArchivedSaleRepository archivedSaleRepository, AvailableBatchIndex availableBatchIndex, BatchSequenceAllocator batchSequenceAllocator,
+            SalesReportService salesReportService, ExpirySweeper expirySweeper,
+            InventoryMetrics inventoryMetrics, StockLedgerService stockLedgerService,
+            StockSummaryService stockSummaryService, PlatformTransactionManager transactionManager) {
         this.inventoryRepository = inventoryRepository;
         this.saleRepository = saleRepository;
+        this.archivedSaleRepository = archivedSaleRepository;
+        this.availableBatchIndex = availableBatchIndex;
+        this.batchSequenceAllocator = batchSequenceAllocator;
+        this.salesReportService = salesReportService;
+        this.expirySweeper = expirySweeper;
+        this.inventoryMetrics = inventoryMetrics;
+        this.stockLedgerService = stockLedgerService;
+        this.stockSummaryService = stockSummaryService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
 
     public Page<Inventory> getInventoryByProduct(Long productId, int pageNo, int pageSize,
@@ -40,7 +79,41 @@ public class InventoryService {
 
         Pageable pageable = PageRequest.of(pageNo - 1, pageSize, sort);
 
-        Specification<Inventory> spec = (root, query, criteriaBuilder) -> {
+        return inventoryRepository.findAll(inventoryFilter(productId, keyword, startDate, endDate, status), pageable);
+    }
+
+    /**
+     * Keyset (seek) page of a product's batches ordered by (batchCode, id),
+     * with the same filters as {@link #getInventoryByProduct}. Never counts or
+     * skips rows, so deep pages cost the same as the first.
+     *
+     * @param after  cursor of the last row of the previous page (next page)
+     * @param before cursor of the first row of the following page (previous page)
+     */
+    public CursorPage<Inventory> getInventoryPageByProduct(Long productId, String after, String before,
+            int pageSize, String keyword, LocalDate startDate, LocalDate endDate,
+            String status, String sortDir) {
+        Sort.Direction direction = Sort.Direction.fromString(sortDir != null ? sortDir : "asc");
+        Sort sort = Sort.by(direction, "batchCode").and(Sort.by(direction, "id"));
+
+        boolean forward = !StringUtils.hasText(before);
+        String cursor = forward ? after : before;
+        if (!StringUtils.hasText(cursor)) {
+            cursor = null;
+        }
+        ScrollPosition position = cursor == null ? ScrollPosition.keyset()
+                : KeysetCursor.parse(cursor).toPosition("batchCode", key -> key, forward);
+
+        Window<Inventory> window = inventoryRepository.findBy(
+                inventoryFilter(productId, keyword, startDate, endDate, status),
+                query -> query.sortBy(sort).limit(pageSize).scroll(position));
+        return CursorPage.of(window, forward, cursor != null,
+                inventory -> KeysetCursor.of(inventory.getBatchCode(), inventory.getId()));
+    }
+
+    private Specification<Inventory> inventoryFilter(Long productId, String keyword,
+            LocalDate startDate, LocalDate endDate, String status) {
+        return (root, query, criteriaBuilder) -> {
             List<Predicate> predicates = new ArrayList<>();
 
             // Filter by Product ID
@@ -60,92 +133,273 @@ public class InventoryService {
                 predicates.add(criteriaBuilder.lessThanOrEqualTo(root.get("entryDate"), endDate));
             }
 
-            // Filter by Status
+            // Filter by Status (materialized expiry flag)
             if ("ACTIVE".equalsIgnoreCase(status)) {
-                // Expiry date is null OR expiry date is in future
-                Predicate expiryNull = criteriaBuilder.isNull(root.get("expiryDate"));
-                Predicate expiryFuture = criteriaBuilder.greaterThan(root.get("expiryDate"), LocalDate.now());
-                predicates.add(criteriaBuilder.or(expiryNull, expiryFuture));
+                predicates.add(criteriaBuilder.isFalse(root.get("expired")));
             } else if ("EXPIRED".equalsIgnoreCase(status)) {
-                // Expiry date is NOT null AND expiry date is in past or today
-                Predicate expiryNotNull = criteriaBuilder.isNotNull(root.get("expiryDate"));
-                Predicate expiryPast = criteriaBuilder.lessThanOrEqualTo(root.get("expiryDate"), LocalDate.now());
-                predicates.add(criteriaBuilder.and(expiryNotNull, expiryPast));
+                predicates.add(criteriaBuilder.isTrue(root.get("expired")));
             }
 
             return criteriaBuilder.and(predicates.toArray(new Predicate[0]));
         };
-
-        return inventoryRepository.findAll(spec, pageable);
     }
 
     public Optional<Inventory> getInventoryById(Long id) {
         return inventoryRepository.findById(id);
     }
 
+    /**
+     * Save a new or edited batch. A new batch's sequence is reserved before
+     * the transaction starts: a block refill runs its own short transaction,
+     * which must not hold a second pooled connection next to this one.
+     */
     public Inventory saveInventory(Inventory inventory) {
         if (inventory.getId() == null) {
             // New inventory entry, generate batch code
             Product product = inventory.getProduct();
-            Optional<Inventory> lastInventory = inventoryRepository.findTopByProductOrderByBatchSequenceDesc(product);
-
-            long nextSequence = lastInventory.map(inv -> inv.getBatchSequence() + 1).orElse(1L);
+            long nextSequence = batchSequenceAllocator.next(product.getId());
             inventory.setBatchSequence(nextSequence);
             inventory.setBatchCode(product.getSku() + "-" + nextSequence);
         }
-        return inventoryRepository.save(inventory);
+        return transactionTemplate.execute(status -> persistInventory(inventory));
+    }
+
+    private Inventory persistInventory(Inventory inventory) {
+        boolean isNew = inventory.getId() == null;
+        int previousQuantity = isNew ? 0 : inventoryRepository.findQuantityById(inventory.getId()).orElse(0);
+        if (!isNew) {
+            // Held units are not part of the edit form; a hold taken since it was
+            // opened moved the version, so the save below fails rather than overselling
+            int held = inventoryRepository.findHeldById(inventory.getId()).orElse(0);
+            if (inventory.getQuantity() != null && inventory.getQuantity() < held) {
+                throw new IllegalStateException("Batch " + inventory.getBatchCode() + " has " + held +
+                        " units held by reservations. The quantity cannot go below that.");
+            }
+            inventory.setHeld(held);
+        }
+        try {
+            // Flushed here so version and batch code conflicts surface inside this try
+            Inventory saved = inventoryRepository.saveAndFlush(inventory);
+            if (isNew) {
+                stockLedgerService.recordReceipt(saved);
+            } else {
+                stockLedgerService.recordAdjustment(saved, saved.getQuantity() - previousQuantity);
+            }
+            stockSummaryService.refreshProduct(saved.getProduct().getId());
+            availableBatchIndex.upsert(saved);
+            expirySweeper.track(saved.getExpiryDate());
+            return saved;
+        } catch (ObjectOptimisticLockingFailureException e) {
+            // The batch moved (e.g. a sale) after the edit form was opened
+            throw new IllegalStateException("Batch " + inventory.getBatchCode() +
+                    " was changed by another user. Please reload and try again.");
+        } catch (DataIntegrityViolationException e) {
+            // Batch codes are unique; two products sharing a SKU can collide
+            throw new IllegalStateException("Batch code " + inventory.getBatchCode() +
+                    " already exists. Check that the product SKU is unique.");
+        }
     }
 
-    @org.springframework.transaction.annotation.Transactional
+    @Transactional
     public void deleteInventory(Long id) {
-        // Auto-remove associated sales (orphan removal)
+        // Auto-remove associated sales (orphan removal), archived ones included
+        // so a rollup rebuild does not bring their revenue back
         saleRepository.deleteByInventoryId(id);
+        archivedSaleRepository.deleteByInventoryId(id);
+        salesReportService.removeBatch(id);
 
+        // Whatever was left in the batch leaves the stock ledger with it
+        Optional<Inventory> batch = inventoryRepository.findById(id);
+        batch.ifPresent(b -> stockLedgerService.recordAdjustment(b, -b.getQuantity()));
         inventoryRepository.deleteById(id);
+        if (batch.isPresent()) {
+            // The soft delete is an UPDATE; flushed so the summary no longer counts the batch
+            inventoryRepository.flush();
+            stockSummaryService.refreshProduct(batch.get().getProduct().getId());
+            availableBatchIndex.remove(batch.get().getProduct().getId(), id);
+        }
     }
 
     /**
      * Update inventory quantity (used by sales)
+     * Applied as a single conditional UPDATE so concurrent sales on the same
+     * batch cannot overwrite each other's deductions. Units held by
+     * reservations are left in the batch.
      * 
+     * @param productId      The product the batch must belong to
      * @param inventoryId    The inventory batch ID
      * @param quantityChange The change in quantity (negative for sales, positive
      *                       for reversals)
      */
-    public void updateQuantity(Long inventoryId, int quantityChange) {
+    @Transactional
+    public void updateQuantity(Long productId, Long inventoryId, int quantityChange) {
+        int updated = quantityChange < 0
+                ? inventoryRepository.decrementQuantity(inventoryId, productId, -quantityChange)
+                : inventoryRepository.incrementQuantity(inventoryId, quantityChange);
+        if (updated == 0) {
+            throw rejectedQuantityChange(productId, inventoryId, quantityChange);
+        }
+        stockSummaryService.adjust(inventoryId, quantityChange);
+        availableBatchIndex.adjustQuantity(productId, inventoryId, quantityChange);
+    }
+
+    /**
+     * Try to deduct stock from a sellable batch without throwing, so callers
+     * applying many deductions in one transaction can report failures per line.
+     *
+     * @return true if the batch had enough non-expired, unheld stock and was updated
+     */
+    @Transactional
+    public boolean tryDeductQuantity(Long productId, Long inventoryId, int quantity) {
+        if (inventoryRepository.decrementQuantity(inventoryId, productId, quantity) == 0) {
+            return false;
+        }
+        stockSummaryService.adjust(inventoryId, -quantity);
+        availableBatchIndex.adjustQuantity(productId, inventoryId, -quantity);
+        return true;
+    }
+
+    /**
+     * Hold units of a sellable batch for a reservation. The hold is a
+     * conditional UPDATE on the batch row, checked against the same unheld
+     * stock as sales, so a hold and a sale can never both get the last units.
+     *
+     * @return the batch, as it stands with the hold
+     */
+    @Transactional
+    public Inventory holdQuantity(Long productId, Long inventoryId, int quantity) {
+        if (inventoryRepository.holdQuantity(inventoryId, productId, quantity) == 0) {
+            throw rejectedQuantityChange(productId, inventoryId, -quantity);
+        }
+        // Stock on hand did not move, only what is offered
+        availableBatchIndex.adjustQuantity(productId, inventoryId, -quantity);
+        return inventoryRepository.findById(inventoryId).orElseThrow();
+    }
+
+    /**
+     * Give units held by a reservation back (released or expired)
+     */
+    @Transactional
+    public void releaseHeldQuantity(Long productId, Long inventoryId, int quantity) {
+        if (inventoryRepository.releaseHeld(inventoryId, quantity) > 0) {
+            availableBatchIndex.adjustQuantity(productId, inventoryId, quantity);
+        }
+    }
+
+    /**
+     * Deduct stock held by a reservation that is being confirmed: the units
+     * leave the batch and its holds in the same statement, so the batch's
+     * other holds stay covered.
+     */
+    @Transactional
+    public void deductHeldQuantity(Long inventoryId, int quantity) {
+        if (inventoryRepository.decrementHeldQuantity(inventoryId, quantity) == 0) {
+            throw rejectedQuantityChange(null, inventoryId, -quantity);
+        }
+        // The units were already off the unheld stock the index serves
+        stockSummaryService.adjust(inventoryId, -quantity);
+    }
+
+    /**
+     * Drop the holds of a previous run (see StockReservationService)
+     */
+    @Transactional
+    public int clearHolds() {
+        return inventoryRepository.clearHolds();
+    }
+
+    /**
+     * Deduct stock from a batch already row-locked by {@link #lockSellableBatches}.
+     * The managed entity is updated directly and flushed with the transaction.
+     */
+    public void deductLockedBatch(Inventory batch, int quantity) {
+        batch.setQuantity(batch.getQuantity() - quantity);
+        stockSummaryService.adjust(batch.getId(), -quantity);
+        availableBatchIndex.adjustQuantity(batch.getProduct().getId(), batch.getId(), -quantity);
+    }
+
+    /**
+     * Lock and return the sellable batches of a product, earliest expiry first
+     * (FEFO). Must be called inside a transaction; the locks are held until it
+     * commits, so no hold can be taken on them meanwhile.
+     */
+    @Transactional
+    public List<Inventory> lockSellableBatches(Long productId) {
+        return inventoryRepository.findSellableBatchesForUpdate(productId);
+    }
+
+    /**
+     * Row-lock a batch until the surrounding transaction commits, for changes
+     * keyed by the batch that do not update its stock (see SaleService#updateSale)
+     */
+    @Transactional
+    public void lockBatch(Long inventoryId) {
+        inventoryRepository.findProductIdForUpdate(inventoryId);
+    }
+
+    /**
+     * Load several batches with one query, keyed by ID
+     */
+    public Map<Long, Inventory> getInventoriesByIds(Collection<Long> ids) {
+        return inventoryRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Inventory::getId, Function.identity()));
+    }
+
+    /**
+     * Work out why a conditional quantity update matched no row. Only runs on
+     * the failure path, so the happy path stays a single statement.
+     *
+     * @param productId the product the batch was expected to belong to, or null
+     */
+    private RuntimeException rejectedQuantityChange(Long productId, Long inventoryId, int quantityChange) {
         Optional<Inventory> inventoryOpt = inventoryRepository.findById(inventoryId);
-        if (inventoryOpt.isPresent()) {
-            Inventory inventory = inventoryOpt.get();
-            int newQuantity = inventory.getQuantity() + quantityChange;
-            if (newQuantity < 0) {
-                throw new IllegalStateException("Inventory quantity cannot be negative. Batch: " +
-                        inventory.getBatchCode() + ", Current: " + inventory.getQuantity() +
-                        ", Change: " + quantityChange);
-            }
-            inventory.setQuantity(newQuantity);
-            inventoryRepository.save(inventory);
-        } else {
-            throw new IllegalArgumentException("Inventory not found with id: " + inventoryId);
+        if (inventoryOpt.isEmpty()) {
+            return new IllegalArgumentException("Inventory not found with id: " + inventoryId);
+        }
+        Inventory inventory = inventoryOpt.get();
+        if (productId != null && !inventory.getProduct().getId().equals(productId)) {
+            return new IllegalArgumentException("Batch " + inventory.getBatchCode() +
+                    " does not belong to product " + productId);
         }
+
+        // MANDATORY: Prevent selling from expired batches
+        if (inventory.isExpired()) {
+            inventoryMetrics.expiredBatch();
+            return new IllegalStateException("Cannot sell from expired batch. Batch: " +
+                    inventory.getBatchCode() + ", Expired on: " + inventory.getExpiryDate());
+        }
+
+        int available = getAvailableQuantity(inventoryId);
+        inventoryMetrics.insufficientStock();
+        return new IllegalStateException("Insufficient inventory. Batch: " + inventory.getBatchCode() +
+                ", Available: " + available + ", Requested: " + -quantityChange);
     }
 
     /**
-     * Get available quantity for a batch
+     * Get available quantity for a batch (on hand, less reservation holds)
      */
     public int getAvailableQuantity(Long inventoryId) {
-        return inventoryRepository.findById(inventoryId)
-                .map(Inventory::getQuantity)
-                .orElse(0);
+        return Math.max(inventoryRepository.findAvailableQuantityById(inventoryId).orElse(0), 0);
     }
 
     /**
-     * Get all batches with available quantity for a product
+     * Available quantity of a batch already loaded (or locked) by the caller
      */
-    public List<Inventory> getAvailableBatches(Long productId) {
-        Specification<Inventory> spec = (root, query, criteriaBuilder) -> {
-            Predicate productMatch = criteriaBuilder.equal(root.get("product").get("id"), productId);
-            Predicate quantityGreaterThanZero = criteriaBuilder.greaterThan(root.get("quantity"), 0);
-            return criteriaBuilder.and(productMatch, quantityGreaterThanZero);
-        };
-        return inventoryRepository.findAll(spec);
+    public int getAvailableQuantity(Inventory batch) {
+        return Math.max(batch.getQuantity() - batch.getHeld(), 0);
+    }
+
+    /**
+     * Get all sellable (in stock, non-expired) batches for a product sorted by
+     * expiry, with the units held by reservations taken off. Served from the
+     * in-memory index after the first load.
+     */
+    public List<BatchView> getAvailableBatches(Long productId) {
+        List<BatchView> cached = availableBatchIndex.lookup(productId);
+        if (cached != null) {
+            return cached;
+        }
+        long token = availableBatchIndex.beginLoad();
+        return availableBatchIndex.completeLoad(productId, token, inventoryRepository.findBatchViewsInStock(productId));
     }
 }
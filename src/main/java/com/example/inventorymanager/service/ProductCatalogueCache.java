@@ -0,0 +1,86 @@
+package com.example.inventorymanager.service;
+
+import com.example.inventorymanager.model.Product;
+import com.example.inventorymanager.repository.ProductRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Eviction and statistics for the Hibernate second-level cache holding the
+ * product catalogue (the Product entity region and the cached catalogue
+ * listing queries).
+ *
+ * Hibernate already refreshes the cache on its own writes; evicting
+ * explicitly after each product save or soft delete also covers the custom
+ * soft-delete SQL and any write made outside the session.
+ */
+@Component
+public class ProductCatalogueCache {
+
+    private final SessionFactory sessionFactory;
+
+    // Bumped after every committed product change
+    private final AtomicLong version = new AtomicLong();
+
+    public record RegionStats(String region, long hits, long misses, long puts, double hitRatio) {
+    }
+
+    public ProductCatalogueCache(EntityManagerFactory entityManagerFactory) {
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+    }
+
+    /**
+     * Drop a product and the cached listings, once the surrounding transaction
+     * commits (or right away when there is none)
+     */
+    public void evict(Long productId) {
+        Runnable eviction = () -> {
+            sessionFactory.getCache().evictEntityData(Product.class, productId);
+            sessionFactory.getCache().evictQueryRegion(ProductRepository.CATALOGUE_REGION);
+            version.incrementAndGet();
+        };
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            eviction.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                eviction.run();
+            }
+        });
+    }
+
+    /**
+     * Catalogue version; anything derived from the product list is stale once
+     * this moves on
+     */
+    public long version() {
+        return version.get();
+    }
+
+    public List<RegionStats> stats() {
+        Statistics statistics = sessionFactory.getStatistics();
+        return List.of(regionStats(statistics, Product.class.getName()),
+                regionStats(statistics, ProductRepository.CATALOGUE_REGION));
+    }
+
+    private static RegionStats regionStats(Statistics statistics, String region) {
+        CacheRegionStatistics regionStatistics = statistics.getCacheRegionStatistics(region);
+        if (regionStatistics == null) {
+            return new RegionStats(region, 0, 0, 0, 0);
+        }
+        long hits = regionStatistics.getHitCount();
+        long misses = regionStatistics.getMissCount();
+        double ratio = hits + misses == 0 ? 0 : (double) hits / (hits + misses);
+        return new RegionStats(region, hits, misses, regionStatistics.getPutCount(), ratio);
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.inventorymanager.service;
+
+import com.example.inventorymanager.repository.ProductRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Service;
+import org.springframework.util.DigestUtils;
+
+/**
+ * Serves the product lookup list (id, name, SKU, price) as ready-made JSON.
+ *
+ * The list is queried and serialized once per catalogue version and reused
+ * until a product is saved or deleted. The ETag is a hash of the bytes, so
+ * it stays valid across restarts for unchanged content.
+ */
+@Service
+public class ProductLookupService {
+
+    private final ProductRepository productRepository;
+    private final ProductCatalogueCache productCatalogueCache;
+    private final ObjectMapper objectMapper;
+
+    private volatile Snapshot snapshot;
+
+    public record Snapshot(long version, byte[] json, String etag) {
+    }
+
+    public ProductLookupService(ProductRepository productRepository, ProductCatalogueCache productCatalogueCache,
+            ObjectMapper objectMapper) {
+        this.productRepository = productRepository;
+        this.productCatalogueCache = productCatalogueCache;
+        this.objectMapper = objectMapper;
+    }
+
+    public Snapshot getLookup() {
+        Snapshot current = snapshot;
+        long version = productCatalogueCache.version();
+        if (current != null && current.version() == version) {
+            return current;
+        }
+        // Read the version before querying: a change committed meanwhile bumps
+        // it again and the next call rebuilds
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(productRepository.findLookup());
+            current = new Snapshot(version, json, "\"" + DigestUtils.md5DigestAsHex(json) + "\"");
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize the product lookup", e);
+        }
+        snapshot = current;
+        return current;
+    }
+}
@@ -0,0 +1,164 @@
+package com.example.inventorymanager.service;
+
+import com.example.inventorymanager.model.Product;
+import com.example.inventorymanager.repository.ProductRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * In-process inverted index over product name, description and SKU, replacing
+ * the leading-wildcard LIKE scan of the products search.
+ *
+ * Tokens are kept in a sorted map, so each search term is a prefix range
+ * lookup. Results must match every term and are ranked by where the terms
+ * matched (SKU over name over description) and whether the match was a whole
+ * word. Loaded once at startup and kept in sync by ProductService.
+ */
+@Component
+public class ProductSearchIndex {
+
+    private static final int SKU_WEIGHT = 5;
+    private static final int NAME_WEIGHT = 3;
+    private static final int DESCRIPTION_WEIGHT = 1;
+
+    private final ProductRepository productRepository;
+
+    // token -> product id -> best field weight of that token in the product
+    private final NavigableMap<String, Map<Long, Integer>> postings = new ConcurrentSkipListMap<>();
+    private final Map<Long, Set<String>> tokensByProduct = new ConcurrentHashMap<>();
+
+    public ProductSearchIndex(ProductRepository productRepository) {
+        this.productRepository = productRepository;
+    }
+
+    @PostConstruct
+    void load() {
+        productRepository.findAll().forEach(this::put);
+    }
+
+    /**
+     * @return ids of the products matching every term of the query, best first
+     */
+    public List<Long> search(String query) {
+        List<String> terms = tokenize(query);
+        if (terms.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Long, Integer> scores = null;
+        for (String term : terms) {
+            Map<Long, Integer> termScores = new HashMap<>();
+            // All tokens starting with the term
+            for (Map.Entry<String, Map<Long, Integer>> entry : postings.subMap(term, true, term + Character.MAX_VALUE, false).entrySet()) {
+                int exactBonus = entry.getKey().equals(term) ? 2 : 1;
+                entry.getValue().forEach((productId, weight) -> termScores.merge(productId, weight * exactBonus, Math::max));
+            }
+            if (scores == null) {
+                scores = termScores;
+            } else {
+                // Every term must match
+                scores.keySet().retainAll(termScores.keySet());
+                scores.replaceAll((productId, score) -> score + termScores.get(productId));
+            }
+            if (scores.isEmpty()) {
+                return List.of();
+            }
+        }
+
+        List<Map.Entry<Long, Integer>> ranked = new ArrayList<>(scores.entrySet());
+        ranked.sort(Map.Entry.<Long, Integer>comparingByValue(Comparator.reverseOrder())
+                .thenComparing(Map.Entry.comparingByKey()));
+        return ranked.stream().map(Map.Entry::getKey).toList();
+    }
+
+    /**
+     * A product was created or edited
+     */
+    public void index(Product product) {
+        afterCommit(() -> put(product));
+    }
+
+    /**
+     * A product was deleted
+     */
+    public void remove(Long productId) {
+        afterCommit(() -> drop(productId));
+    }
+
+    private synchronized void put(Product product) {
+        drop(product.getId());
+
+        Map<String, Integer> weights = new HashMap<>();
+        addTokens(weights, product.getDescription(), DESCRIPTION_WEIGHT);
+        addTokens(weights, product.getName(), NAME_WEIGHT);
+        addTokens(weights, product.getSku(), SKU_WEIGHT);
+        if (product.getSku() != null && !product.getSku().isBlank()) {
+            // Whole SKU as well as its parts, so "HNY-500" matches as typed
+            weights.merge(product.getSku().trim().toLowerCase(Locale.ROOT), SKU_WEIGHT, Math::max);
+        }
+
+        weights.forEach((token, weight) -> postings
+                .computeIfAbsent(token, t -> new ConcurrentHashMap<>())
+                .put(product.getId(), weight));
+        tokensByProduct.put(product.getId(), new HashSet<>(weights.keySet()));
+    }
+
+    private synchronized void drop(Long productId) {
+        Set<String> tokens = tokensByProduct.remove(productId);
+        if (tokens == null) {
+            return;
+        }
+        for (String token : tokens) {
+            postings.computeIfPresent(token, (t, products) -> {
+                products.remove(productId);
+                return products.isEmpty() ? null : products;
+            });
+        }
+    }
+
+    private static void addTokens(Map<String, Integer> weights, String text, int weight) {
+        for (String token : tokenize(text)) {
+            weights.merge(token, weight, Math::max);
+        }
+    }
+
+    private static List<String> tokenize(String text) {
+        if (text == null) {
+            return List.of();
+        }
+        List<String> tokens = new ArrayList<>();
+        for (String token : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    private static void afterCommit(Runnable write) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            write.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                write.run();
+            }
+        });
+    }
+}
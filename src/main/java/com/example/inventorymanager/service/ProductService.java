@@ -1,6 +1,7 @@
 package com.example.inventorymanager.service;
 
 import com.example.inventorymanager.model.Product;
+import com.example.inventorymanager.repository.ArchivedSaleRepository;
 import com.example.inventorymanager.repository.InventoryRepository;
 import com.example.inventorymanager.repository.ProductRepository;
 import com.example.inventorymanager.repository.SaleRepository;
@@ -8,11 +9,16 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class ProductService {
@@ -20,14 +26,32 @@ public class ProductService {
     private final ProductRepository productRepository;
     private final InventoryRepository inventoryRepository;
     private final SaleRepository saleRepository;
+    private final ArchivedSaleRepository archivedSaleRepository;
+    private final AvailableBatchIndex availableBatchIndex;
+    private final ProductSearchIndex productSearchIndex;
+    private final ProductCatalogueCache productCatalogueCache;
+    private final StockLedgerService stockLedgerService;
+    private final StockSummaryService stockSummaryService;
 
     @Autowired
     public ProductService(ProductRepository productRepository,
             InventoryRepository inventoryRepository,
-            SaleRepository saleRepository) {
+            SaleRepository saleRepository,
+            ArchivedSaleRepository archivedSaleRepository,
+            AvailableBatchIndex availableBatchIndex,
+            ProductSearchIndex productSearchIndex,
+            ProductCatalogueCache productCatalogueCache,
+            StockLedgerService stockLedgerService,
+            StockSummaryService stockSummaryService) {
         this.productRepository = productRepository;
         this.inventoryRepository = inventoryRepository;
         this.saleRepository = saleRepository;
+        this.archivedSaleRepository = archivedSaleRepository;
+        this.availableBatchIndex = availableBatchIndex;
+        this.productSearchIndex = productSearchIndex;
+        this.productCatalogueCache = productCatalogueCache;
+        this.stockLedgerService = stockLedgerService;
+        this.stockSummaryService = stockSummaryService;
     }
 
     public List<Product> getAllProducts() {
@@ -39,11 +63,25 @@ public class ProductService {
         return productRepository.findAll(pageable);
     }
 
+    /**
+     * Search by name, description or SKU through the in-memory search index
+     * (word-prefix matches, best matches first). Only the products on the
+     * requested page are read from the database.
+     */
     public Page<Product> findPaginated(int pageNo, int pageSize, String keyword) {
         Pageable pageable = PageRequest.of(pageNo - 1, pageSize);
         if (keyword != null && !keyword.isEmpty()) {
-            return productRepository.findByNameContainingIgnoreCaseOrDescriptionContainingIgnoreCase(keyword, keyword,
-                    pageable);
+            List<Long> matches = productSearchIndex.search(keyword);
+            int from = (int) Math.min(pageable.getOffset(), matches.size());
+            List<Long> pageIds = matches.subList(from, Math.min(from + pageSize, matches.size()));
+
+            Map<Long, Product> products = productRepository.findAllById(pageIds).stream()
+                    .collect(Collectors.toMap(Product::getId, Function.identity()));
+            List<Product> content = pageIds.stream()
+                    .map(products::get)
+                    .filter(Objects::nonNull)
+                    .toList();
+            return new PageImpl<>(content, pageable, matches.size());
         }
         return productRepository.findAll(pageable);
     }
@@ -52,23 +90,35 @@ public class ProductService {
         return productRepository.findById(id);
     }
 
+    @Transactional
     public Product saveProduct(Product product) {
-        return productRepository.save(product);
+        // Flushed so the stock summary picks up the new name, SKU and price
+        Product saved = productRepository.saveAndFlush(product);
+        stockSummaryService.refreshProduct(saved.getId());
+        productSearchIndex.index(saved);
+        productCatalogueCache.evict(saved.getId());
+        return saved;
     }
 
     @Transactional
     public void deleteProduct(Long id) {
-        // Check if product has sales - we DO NOT want to auto-delete sales
-        long salesCount = saleRepository.countByProductId(id);
+        // Check if product has sales - we DO NOT want to auto-delete sales (archived ones count too)
+        long salesCount = saleRepository.countByProductId(id) + archivedSaleRepository.countLiveByProductId(id);
         if (salesCount > 0) {
             throw new IllegalStateException("Cannot delete product with existing sales records. " +
                     "This product has " + salesCount + " sale(s) associated with it.");
         }
 
-        // Auto-remove inventory batches (orphan removal)
+        // Auto-remove inventory batches (orphan removal), writing their stock off the ledger
+        inventoryRepository.findByProductIdAndQuantityGreaterThan(id, 0)
+                .forEach(batch -> stockLedgerService.recordAdjustment(batch, -batch.getQuantity()));
         inventoryRepository.deleteByProductId(id);
+        availableBatchIndex.evictProduct(id);
+        stockSummaryService.removeProduct(id);
 
         // Delete the product
         productRepository.deleteById(id);
+        productSearchIndex.remove(id);
+        productCatalogueCache.evict(id);
     }
 }
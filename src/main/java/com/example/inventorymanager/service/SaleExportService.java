@@ -0,0 +1,120 @@
+package com.example.inventorymanager.service;
+
+import com.example.inventorymanager.dto.SaleExportRow;
+import com.example.inventorymanager.repository.ArchivedSaleRepository;
+import com.example.inventorymanager.repository.SaleRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Streams sales to an output stream as CSV or NDJSON (one JSON object per
+ * line). Rows are read through a forward-only cursor as projections, so heap
+ * use does not grow with the number of rows.
+ *
+ * Sales moved to the archive by ArchiveService are exported too: the live
+ * and archived cursors are merged by (saleDate, id), so the export reads as
+ * one ordered table.
+ */
+@Service
+public class SaleExportService {
+
+    private static final int FLUSH_EVERY = 1000;
+    private static final String CSV_HEADER = "id,saleDate,productId,productName,sku,inventoryId,batchCode,"
+            + "quantity,sellingPrice,totalAmount,createdAt";
+
+    private static final Comparator<SaleExportRow> EXPORT_ORDER = Comparator
+            .comparing(SaleExportRow::saleDate)
+            .thenComparing(SaleExportRow::id);
+
+    private final SaleRepository saleRepository;
+    private final ArchivedSaleRepository archivedSaleRepository;
+    private final ObjectMapper objectMapper;
+
+    public SaleExportService(SaleRepository saleRepository, ArchivedSaleRepository archivedSaleRepository,
+            ObjectMapper objectMapper) {
+        this.saleRepository = saleRepository;
+        this.archivedSaleRepository = archivedSaleRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * @param format "csv" or "ndjson"
+     */
+    @Transactional(readOnly = true)
+    public void export(String format, LocalDate from, LocalDate to, Long productId, OutputStream out)
+            throws IOException {
+        boolean csv = "csv".equalsIgnoreCase(format);
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        if (csv) {
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+        }
+        // Send the first bytes before the first row has been read
+        writer.flush();
+
+        try (Stream<SaleExportRow> live = saleRepository.streamForExport(from, to, productId);
+                Stream<SaleExportRow> archived = archivedSaleRepository.streamForExport(from, to, productId)) {
+            Iterator<SaleExportRow> liveRows = live.iterator();
+            Iterator<SaleExportRow> archivedRows = archived.iterator();
+            SaleExportRow nextLive = liveRows.hasNext() ? liveRows.next() : null;
+            SaleExportRow nextArchived = archivedRows.hasNext() ? archivedRows.next() : null;
+            long count = 0;
+            while (nextLive != null || nextArchived != null) {
+                SaleExportRow row;
+                if (nextArchived == null || (nextLive != null && EXPORT_ORDER.compare(nextLive, nextArchived) < 0)) {
+                    row = nextLive;
+                    nextLive = liveRows.hasNext() ? liveRows.next() : null;
+                } else {
+                    row = nextArchived;
+                    nextArchived = archivedRows.hasNext() ? archivedRows.next() : null;
+                }
+                writer.write(csv ? toCsv(row) : objectMapper.writeValueAsString(row));
+                writer.write('\n');
+                if (++count % FLUSH_EVERY == 0) {
+                    writer.flush();
+                }
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        writer.flush();
+    }
+
+    private static String toCsv(SaleExportRow row) {
+        return String.join(",",
+                String.valueOf(row.id()),
+                String.valueOf(row.saleDate()),
+                String.valueOf(row.productId()),
+                csvField(row.productName()),
+                csvField(row.sku()),
+                String.valueOf(row.inventoryId()),
+                csvField(row.batchCode()),
+                String.valueOf(row.quantity()),
+                row.sellingPrice().toPlainString(),
+                row.totalAmount().toPlainString(),
+                row.createdAt() != null ? row.createdAt().toString() : "");
+    }
+
+    private static String csvField(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.contains(",") || value.contains("\"") || value.contains("\n") || value.contains("\r")) {
+            return "\"" + value.replace("\"", "\"\"") + "\"";
+        }
+        return value;
+    }
+}
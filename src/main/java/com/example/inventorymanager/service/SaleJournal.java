@@ -0,0 +1,246 @@
+package com.example.inventorymanager.service;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.zip.CRC32C;
+
+/**
+ * The on-disk part of the sale journal: fixed-size segment files, mapped into
+ * memory and written with plain stores.
+ *
+ * A segment starts with a header slot (journal id and first sequence),
+ * followed by one 64-byte slot per entry. Every slot carries a CRC32C, so a
+ * slot torn by a crash, like the zeroed space after the last write, reads as
+ * the end of the segment.
+ *
+ * Not thread-safe: SaleJournalService serializes appends and rollovers, and
+ * only calls {@link #force} from its sync thread.
+ */
+final class SaleJournal {
+
+    static final int SLOT_SIZE = 64;
+
+    private static final int HEADER_MAGIC = 0x534A4E48;
+    private static final int ENTRY_MAGIC = 0x534A4E45;
+    private static final int CRC_OFFSET = SLOT_SIZE - Integer.BYTES;
+    private static final String PREFIX = "sales-";
+    private static final String SUFFIX = ".journal";
+
+    record Entry(long sequence, long productId, long inventoryId, int quantity, BigDecimal sellingPrice,
+            LocalDate saleDate) {
+    }
+
+    /**
+     * A segment file found on disk. {@code journalId} is 0 if the header is
+     * unreadable (a crash while the segment was being created).
+     */
+    record SegmentFile(Path path, long journalId, long firstSequence) {
+    }
+
+    static final class Segment {
+        final Path path;
+        final MappedByteBuffer buffer;
+        // Next free slot, and the end of the part known to be on disk
+        int position = SLOT_SIZE;
+        volatile int forced = SLOT_SIZE;
+        long lastSequence;
+
+        private Segment(Path path, MappedByteBuffer buffer, long firstSequence) {
+            this.path = path;
+            this.buffer = buffer;
+            this.lastSequence = firstSequence - 1;
+        }
+    }
+
+    private final Path dir;
+    private final long journalId;
+    private final int segmentSize;
+
+    // Oldest first; the last one takes the writes
+    private final List<Segment> segments = new ArrayList<>();
+
+    /**
+     * Start a new segment whose first entry will be {@code nextSequence}
+     */
+    SaleJournal(Path dir, long journalId, int segmentSize, long nextSequence) throws IOException {
+        if (segmentSize < 2 * SLOT_SIZE) {
+            throw new IllegalArgumentException("Journal segments must hold at least one entry");
+        }
+        this.dir = dir;
+        this.journalId = journalId;
+        this.segmentSize = segmentSize - segmentSize % SLOT_SIZE;
+        segments.add(createSegment(nextSequence));
+    }
+
+    Segment active() {
+        return segments.get(segments.size() - 1);
+    }
+
+    /**
+     * Write an entry into the active segment, rolling over to a new segment
+     * when it is full. The entry is in the page cache, not yet on disk.
+     */
+    void append(Entry entry) throws IOException {
+        Segment active = active();
+        if (active.position + SLOT_SIZE > segmentSize) {
+            // The full segment is forced before the next one takes writes, so
+            // the sync thread only ever has to force the active segment
+            force(active, active.position);
+            active = createSegment(entry.sequence());
+            segments.add(active);
+        }
+        writeEntry(active.buffer, active.position, entry);
+        active.position += SLOT_SIZE;
+        active.lastSequence = entry.sequence();
+    }
+
+    /**
+     * fsync the slots of a segment written up to {@code position}
+     */
+    static void force(Segment segment, int position) {
+        int from = segment.forced;
+        if (position > from) {
+            segment.buffer.force(from, position - from);
+            segment.forced = position;
+        }
+    }
+
+    /**
+     * Delete the full segments whose entries have all been applied
+     */
+    void deleteApplied(long appliedSequence) throws IOException {
+        Iterator<Segment> it = segments.iterator();
+        while (it.hasNext()) {
+            Segment segment = it.next();
+            if (segment == active() || segment.lastSequence > appliedSequence) {
+                return;
+            }
+            Files.deleteIfExists(segment.path);
+            it.remove();
+        }
+    }
+
+    private Segment createSegment(long firstSequence) throws IOException {
+        Path path = dir.resolve(String.format("%s%020d%s", PREFIX, firstSequence, SUFFIX));
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            // Mapping past the end grows the file; the new space reads as zeros
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        }
+        buffer.putInt(0, HEADER_MAGIC);
+        buffer.putLong(4, journalId);
+        buffer.putLong(12, firstSequence);
+        buffer.putInt(CRC_OFFSET, crc(buffer, 0));
+        buffer.force(0, SLOT_SIZE);
+        syncDirectory(dir);
+        return new Segment(path, buffer, firstSequence);
+    }
+
+    /**
+     * The segment files of a journal directory, oldest first
+     */
+    static List<SegmentFile> list(Path dir) throws IOException {
+        List<SegmentFile> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir, PREFIX + "*" + SUFFIX)) {
+            for (Path path : stream) {
+                files.add(readHeader(path));
+            }
+        }
+        files.sort(Comparator.comparing(file -> file.path().getFileName().toString()));
+        return files;
+    }
+
+    /**
+     * Pass every intact entry of a segment to {@code consumer}, in order,
+     * stopping at the first empty or torn slot
+     */
+    static void read(Path path, Consumer<Entry> consumer) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        long lastSequence = Long.MIN_VALUE;
+        for (int offset = SLOT_SIZE; offset + SLOT_SIZE <= buffer.capacity(); offset += SLOT_SIZE) {
+            if (buffer.getInt(offset) != ENTRY_MAGIC || buffer.getInt(offset + CRC_OFFSET) != crc(buffer, offset)) {
+                return;
+            }
+            Entry entry = readEntry(buffer, offset);
+            if (entry.sequence() <= lastSequence) {
+                return;
+            }
+            lastSequence = entry.sequence();
+            consumer.accept(entry);
+        }
+    }
+
+    /**
+     * Move a segment out of the way, keeping it for inspection
+     */
+    static void setAside(Path path) throws IOException {
+        Files.move(path, path.resolveSibling(path.getFileName() + ".orphaned"));
+    }
+
+    private static SegmentFile readHeader(Path path) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(SLOT_SIZE);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            while (header.hasRemaining() && channel.read(header) >= 0) {
+                // keep reading until the slot is full or the file ends
+            }
+        }
+        if (header.hasRemaining() || header.getInt(0) != HEADER_MAGIC
+                || header.getInt(CRC_OFFSET) != crc(header, 0)) {
+            return new SegmentFile(path, 0, 0);
+        }
+        return new SegmentFile(path, header.getLong(4), header.getLong(12));
+    }
+
+    private static void writeEntry(ByteBuffer buffer, int offset, Entry entry) {
+        buffer.putInt(offset, ENTRY_MAGIC);
+        buffer.putLong(offset + 4, entry.sequence());
+        buffer.putLong(offset + 12, entry.productId());
+        buffer.putLong(offset + 20, entry.inventoryId());
+        buffer.putInt(offset + 28, entry.quantity());
+        buffer.putLong(offset + 32, entry.sellingPrice().unscaledValue().longValueExact());
+        buffer.putInt(offset + 40, entry.sellingPrice().scale());
+        buffer.putLong(offset + 44, entry.saleDate().toEpochDay());
+        buffer.putInt(offset + CRC_OFFSET, crc(buffer, offset));
+    }
+
+    private static Entry readEntry(ByteBuffer buffer, int offset) {
+        return new Entry(
+                buffer.getLong(offset + 4),
+                buffer.getLong(offset + 12),
+                buffer.getLong(offset + 20),
+                buffer.getInt(offset + 28),
+                new BigDecimal(BigInteger.valueOf(buffer.getLong(offset + 32)), buffer.getInt(offset + 40)),
+                LocalDate.ofEpochDay(buffer.getLong(offset + 44)));
+    }
+
+    private static int crc(ByteBuffer buffer, int offset) {
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.slice(offset, CRC_OFFSET));
+        return (int) crc.getValue();
+    }
+
+    // Makes a newly created segment file itself survive a crash
+    private static void syncDirectory(Path dir) throws IOException {
+        try (FileChannel channel = FileChannel.open(dir, StandardOpenOption.READ)) {
+            channel.force(true);
+        }
+    }
+}
@@ -0,0 +1,528 @@
+package com.example.inventorymanager.service;
+
+import com.example.inventorymanager.dto.BatchSaleResult;
+import com.example.inventorymanager.dto.BatchView;
+import com.example.inventorymanager.dto.SaleJournalStatus;
+import com.example.inventorymanager.dto.SaleLine;
+import com.example.inventorymanager.dto.SaleLineResult;
+import com.example.inventorymanager.model.SaleJournalCheckpoint;
+import com.example.inventorymanager.repository.SaleJournalCheckpointRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Write-behind sale ingestion (POS tills at high volume).
+ *
+ * A submitted sale is validated, checked against the committed stock of its
+ * batch (from the AvailableBatchIndex) less what earlier unapplied entries
+ * will take, and appended to the memory-mapped SaleJournal. The caller gets
+ * its sequence once the entry is on disk; a sync thread forces the journal
+ * for everything written since its last force, so concurrent tills share one
+ * fsync. A single drain thread then applies the entries through the bulk
+ * sale path, many per transaction, and advances the journal checkpoint row
+ * in that same transaction.
+ *
+ * On startup anything in the journal past the checkpoint is applied before
+ * new sales are taken, so an acknowledged sale survives a crash and is never
+ * applied twice. An entry can still be refused when it is applied (a direct
+ * sale took the stock first, or the batch expired at midnight); refusals are
+ * logged, counted and listed in {@link #status()}.
+ *
+ * Off by default; enable with inventory.sale-journal.enabled=true.
+ */
+@Service
+@ConditionalOnProperty(name = "inventory.sale-journal.enabled", havingValue = "true")
+public class SaleJournalService {
+
+    private static final Logger log = LoggerFactory.getLogger(SaleJournalService.class);
+
+    private static final int MAX_REPORTED_REJECTIONS = 100;
+    private static final long RETRY_DELAY_MS = 1000;
+    private static final long SHUTDOWN_TIMEOUT_MS = 10_000;
+
+    private final SaleService saleService;
+    private final InventoryService inventoryService;
+    private final InventoryMetrics inventoryMetrics;
+    private final SaleJournalCheckpointRepository checkpointRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Path dir;
+    private final int segmentSize;
+    private final int batchSize;
+    private final int maxPending;
+
+    // Guards the journal file, the sequences and the stock held by unapplied
+    // entries. A lock rather than synchronized: appenders wait on it for the
+    // fsync, and a virtual thread waiting inside synchronized would pin its
+    // carrier thread.
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition written = lock.newCondition();
+    private final Condition durable = lock.newCondition();
+    private SaleJournal journal;
+    private long journalId;
+    private long writtenSequence;
+    private long durableSequence;
+    private List<SaleJournal.Entry> unsynced = new ArrayList<>();
+    private final Map<Long, Integer> reservedUnits = new HashMap<>();
+    private int pendingEntries;
+    private boolean accepting;
+    private boolean stopping;
+
+    // On disk and waiting for the drain thread, in sequence order
+    private final BlockingQueue<SaleJournal.Entry> toApply = new LinkedBlockingQueue<>();
+    private volatile long appliedSequence;
+    private final AtomicLong appliedEntries = new AtomicLong();
+    private final AtomicLong rejectedEntries = new AtomicLong();
+    private final Deque<SaleJournalStatus.Rejection> recentRejections = new ArrayDeque<>();
+
+    private Thread syncThread;
+    private Thread drainThread;
+
+    public SaleJournalService(SaleService saleService, InventoryService inventoryService,
+            InventoryMetrics inventoryMetrics, SaleJournalCheckpointRepository checkpointRepository,
+            PlatformTransactionManager transactionManager,
+            @Value("${inventory.sale-journal.dir:data/sale-journal}") Path dir,
+            @Value("${inventory.sale-journal.segment-size-mb:64}") int segmentSizeMb,
+            @Value("${inventory.sale-journal.batch-size:500}") int batchSize,
+            @Value("${inventory.sale-journal.max-pending:100000}") int maxPending) {
+        this.saleService = saleService;
+        this.inventoryService = inventoryService;
+        this.inventoryMetrics = inventoryMetrics;
+        this.checkpointRepository = checkpointRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.dir = dir;
+        this.segmentSize = segmentSizeMb * 1024 * 1024;
+        this.batchSize = batchSize;
+        this.maxPending = maxPending;
+    }
+
+    /**
+     * Journal a sale and return its sequence once the entry is on disk. The
+     * sale itself is created shortly afterwards by the drain thread.
+     *
+     * @throws IllegalArgumentException if the line is invalid or its batch
+     *                                  does not have the stock
+     * @throws IllegalStateException    if the journal cannot take sales right now
+     */
+    public long submit(SaleLine line) {
+        validate(line);
+        LocalDate saleDate = line.saleDate() != null ? line.saleDate() : LocalDate.now();
+
+        lock.lock();
+        try {
+            if (!accepting) {
+                throw new IllegalStateException("The sale journal is not accepting sales");
+            }
+            if (pendingEntries >= maxPending) {
+                throw new IllegalStateException("The sale journal is full, please retry shortly");
+            }
+
+            // Early stock check: committed stock, less what earlier entries will take
+            BatchView batch = findSellableBatch(line.productId(), line.inventoryId());
+            int available = batch.quantity() - reservedUnits.getOrDefault(batch.id(), 0);
+            if (line.quantity() > available) {
+                inventoryMetrics.insufficientStock();
+                throw new IllegalArgumentException("Insufficient inventory. Batch: " + batch.batchCode() +
+                        ", Available: " + available + ", Requested: " + line.quantity());
+            }
+
+            long sequence = writtenSequence + 1;
+            SaleJournal.Entry entry = new SaleJournal.Entry(sequence, line.productId(), line.inventoryId(),
+                    line.quantity(), line.sellingPrice(), saleDate);
+            try {
+                journal.append(entry);
+            } catch (IOException e) {
+                throw new IllegalStateException("Could not write to the sale journal", e);
+            }
+            writtenSequence = sequence;
+            unsynced.add(entry);
+            reservedUnits.merge(batch.id(), line.quantity(), Integer::sum);
+            pendingEntries++;
+            written.signal();
+
+            while (durableSequence < sequence) {
+                durable.awaitUninterruptibly();
+            }
+            return sequence;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public SaleJournalStatus status() {
+        List<SaleJournalStatus.Rejection> rejections;
+        synchronized (recentRejections) {
+            rejections = List.copyOf(recentRejections);
+        }
+        lock.lock();
+        try {
+            return new SaleJournalStatus(journalId, accepting, writtenSequence, durableSequence, appliedSequence,
+                    pendingEntries, appliedEntries.get(), rejectedEntries.get(), rejections);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Apply whatever the journal holds past the checkpoint, then start taking
+     * sales in a fresh segment
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() throws IOException {
+        Files.createDirectories(dir);
+        List<SaleJournal.SegmentFile> files = SaleJournal.list(dir);
+
+        long existingId = 0;
+        for (SaleJournal.SegmentFile file : files) {
+            if (file.journalId() != 0) {
+                existingId = file.journalId();
+            }
+        }
+        Optional<Long> checkpoint = existingId != 0
+                ? checkpointRepository.findAppliedSequence(existingId)
+                : Optional.empty();
+        if (checkpoint.isPresent()) {
+            journalId = existingId;
+            appliedSequence = checkpoint.get();
+        } else {
+            // e.g. an in-memory database that was recreated: replaying would
+            // apply the entries to batches they were never checked against
+            if (existingId != 0) {
+                log.warn("Sale journal {} in {} is unknown to this database; setting its segments aside",
+                        existingId, dir);
+            }
+            journalId = ThreadLocalRandom.current().nextLong(1, Long.MAX_VALUE);
+            appliedSequence = 0;
+            transactionTemplate.executeWithoutResult(status ->
+                    checkpointRepository.save(new SaleJournalCheckpoint(journalId, 0L)));
+        }
+
+        long lastSequence = appliedSequence;
+        long replayed = 0;
+        List<SaleJournal.Entry> replay = new ArrayList<>();
+        for (SaleJournal.SegmentFile file : files) {
+            if (file.journalId() != journalId) {
+                SaleJournal.setAside(file.path());
+                continue;
+            }
+            replay.clear();
+            SaleJournal.read(file.path(), replay::add);
+            for (int from = 0; from < replay.size(); from += batchSize) {
+                List<SaleJournal.Entry> batch = replay.subList(from, Math.min(from + batchSize, replay.size()))
+                        .stream()
+                        .filter(entry -> entry.sequence() > appliedSequence)
+                        .toList();
+                if (!batch.isEmpty()) {
+                    if (!apply(batch)) {
+                        // Interrupted (shutting down): this segment and the ones after it stay for the next start
+                        log.warn("Sale journal replay interrupted; {} in {} is kept for the next start",
+                                file.path().getFileName(), dir);
+                        return;
+                    }
+                    replayed += batch.size();
+                }
+            }
+            if (!replay.isEmpty()) {
+                lastSequence = Math.max(lastSequence, replay.get(replay.size() - 1).sequence());
+            }
+            // Every entry of this segment is applied now
+            Files.delete(file.path());
+        }
+
+        lock.lock();
+        try {
+            journal = new SaleJournal(dir, journalId, segmentSize, lastSequence + 1);
+            writtenSequence = lastSequence;
+            durableSequence = lastSequence;
+            accepting = true;
+        } finally {
+            lock.unlock();
+        }
+        syncThread = startThread("sale-journal-sync", this::syncLoop);
+        drainThread = startThread("sale-journal-drain", this::drainLoop);
+        log.info("Sale journal {} ready in {}; replayed {} entries", journalId, dir, replayed);
+    }
+
+    /**
+     * Stop taking sales, and give the drain thread a bounded time to apply
+     * what is left; the rest is replayed on the next start
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        lock.lock();
+        try {
+            accepting = false;
+            stopping = true;
+            written.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        if (syncThread == null) {
+            return;
+        }
+        syncThread.join(SHUTDOWN_TIMEOUT_MS);
+        drainThread.join(SHUTDOWN_TIMEOUT_MS);
+        if (drainThread.isAlive()) {
+            drainThread.interrupt();
+            log.warn("Stopped with sale journal entries unapplied; they are applied on the next start");
+        }
+    }
+
+    /**
+     * Forces the journal for every entry written since the last pass, then
+     * acknowledges them and hands them to the drain thread
+     */
+    private void syncLoop() {
+        while (true) {
+            long target;
+            SaleJournal.Segment segment;
+            int position;
+            List<SaleJournal.Entry> entries;
+            lock.lock();
+            try {
+                while (writtenSequence == durableSequence && !stopping) {
+                    written.awaitUninterruptibly();
+                }
+                if (writtenSequence == durableSequence) {
+                    return;
+                }
+                target = writtenSequence;
+                segment = journal.active();
+                position = segment.position;
+                entries = unsynced;
+                unsynced = new ArrayList<>();
+            } finally {
+                lock.unlock();
+            }
+
+            // Appenders keep writing while this runs; they join the next pass
+            while (true) {
+                try {
+                    SaleJournal.force(segment, position);
+                    break;
+                } catch (UncheckedIOException e) {
+                    log.error("Could not force the sale journal, retrying", e);
+                    if (!pause()) {
+                        return;
+                    }
+                }
+            }
+
+            lock.lock();
+            try {
+                durableSequence = target;
+                durable.signalAll();
+            } finally {
+                lock.unlock();
+            }
+            toApply.addAll(entries);
+        }
+    }
+
+    private void drainLoop() {
+        List<SaleJournal.Entry> batch = new ArrayList<>(batchSize);
+        while (true) {
+            SaleJournal.Entry first;
+            try {
+                first = toApply.poll(200, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                return;
+            }
+            if (first == null) {
+                if (!syncThread.isAlive()) {
+                    return;
+                }
+                continue;
+            }
+            // Whatever queued up during the previous transaction goes into this one
+            batch.add(first);
+            toApply.drainTo(batch, batchSize - 1);
+            if (!apply(batch)) {
+                return;
+            }
+            release(batch);
+            batch.clear();
+        }
+    }
+
+    /**
+     * Apply entries in one transaction. If that fails the entries are applied
+     * one at a time, so one bad entry cannot hold back the rest. An entry that
+     * fails on its own is skipped as rejected only if the failure would recur
+     * (e.g. a constraint violation); lock timeouts, optimistic-lock conflicts,
+     * a pool wait running out or an unreachable database are waited out and
+     * retried, as the entry was acknowledged to its till.
+     *
+     * @return false if interrupted before all entries were applied
+     */
+    private boolean apply(List<SaleJournal.Entry> entries) {
+        try {
+            applyInTransaction(entries);
+            return true;
+        } catch (RuntimeException e) {
+            log.warn("Applying {} sale journal entries failed, retrying one by one", entries.size(), e);
+        }
+        for (SaleJournal.Entry entry : entries) {
+            while (true) {
+                try {
+                    applyInTransaction(List.of(entry));
+                    break;
+                } catch (RuntimeException failure) {
+                    RuntimeException retryCause = failure;
+                    if (!isTransient(failure)) {
+                        try {
+                            skip(entry, failure);
+                            break;
+                        } catch (RuntimeException unreachable) {
+                            retryCause = unreachable;
+                        }
+                    }
+                    log.error("Cannot apply sale journal entry {}, retrying", entry.sequence(), retryCause);
+                    if (!pause()) {
+                        return false;
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    private void applyInTransaction(List<SaleJournal.Entry> entries) {
+        List<SaleLine> lines = entries.stream()
+                .map(entry -> new SaleLine(entry.productId(), entry.inventoryId(), entry.quantity(),
+                        entry.sellingPrice(), entry.saleDate()))
+                .toList();
+        long lastSequence = entries.get(entries.size() - 1).sequence();
+        BatchSaleResult result = transactionTemplate.execute(status -> {
+            BatchSaleResult applied = saleService.createSales(lines);
+            checkpointRepository.advance(journalId, lastSequence);
+            return applied;
+        });
+        appliedSequence = lastSequence;
+        appliedEntries.addAndGet(result.accepted());
+        for (SaleLineResult line : result.lines()) {
+            if (!line.accepted()) {
+                reject(entries.get(line.line() - 1), line.error());
+            }
+        }
+    }
+
+    private void skip(SaleJournal.Entry entry, RuntimeException cause) {
+        transactionTemplate.executeWithoutResult(status -> checkpointRepository.advance(journalId, entry.sequence()));
+        appliedSequence = entry.sequence();
+        reject(entry, "Could not be applied: " + cause.getMessage());
+    }
+
+    private void reject(SaleJournal.Entry entry, String error) {
+        rejectedEntries.incrementAndGet();
+        log.warn("Sale journal entry {} (batch {}, quantity {}) was rejected: {}",
+                entry.sequence(), entry.inventoryId(), entry.quantity(), error);
+        synchronized (recentRejections) {
+            if (recentRejections.size() == MAX_REPORTED_REJECTIONS) {
+                recentRejections.removeFirst();
+            }
+            recentRejections.addLast(new SaleJournalStatus.Rejection(entry.sequence(), entry.inventoryId(),
+                    entry.quantity(), error));
+        }
+    }
+
+    /**
+     * Applied entries no longer hold stock, and their segments can go
+     */
+    private void release(List<SaleJournal.Entry> entries) {
+        lock.lock();
+        try {
+            for (SaleJournal.Entry entry : entries) {
+                reservedUnits.computeIfPresent(entry.inventoryId(),
+                        (id, units) -> units > entry.quantity() ? units - entry.quantity() : null);
+            }
+            pendingEntries -= entries.size();
+            journal.deleteApplied(appliedSequence);
+        } catch (IOException e) {
+            log.warn("Could not delete applied sale journal segments", e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private BatchView findSellableBatch(Long productId, Long inventoryId) {
+        return inventoryService.getAvailableBatches(productId).stream()
+                .filter(batch -> batch.id().equals(inventoryId))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Batch " + inventoryId +
+                        " is not available for product " + productId + " (not found, expired or sold out)"));
+    }
+
+    private static void validate(SaleLine line) {
+        if (line.productId() == null || line.inventoryId() == null) {
+            throw new IllegalArgumentException("Product and inventory batch are required");
+        }
+        if (line.quantity() == null || line.quantity() <= 0) {
+            throw new IllegalArgumentException("Sale quantity must be greater than 0");
+        }
+        if (line.sellingPrice() == null || line.sellingPrice().compareTo(BigDecimal.ZERO) <= 0) {
+            throw new IllegalArgumentException("Selling price must be greater than 0");
+        }
+        // Journal slots store the price as a long unscaled value
+        if (line.sellingPrice().unscaledValue().bitLength() > 63) {
+            throw new IllegalArgumentException("Selling price has too many digits");
+        }
+    }
+
+    // Failures that say nothing about the entry itself: the same entry can succeed later
+    private static boolean isTransient(RuntimeException e) {
+        return e instanceof TransientDataAccessException
+                || e instanceof RecoverableDataAccessException
+                || e instanceof DataAccessResourceFailureException
+                || e instanceof TransactionException;
+    }
+
+    private static boolean pause() {
+        try {
+            Thread.sleep(RETRY_DELAY_MS);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static Thread startThread(String name, Runnable task) {
+        Thread thread = new Thread(task, name);
+        thread.setDaemon(true);
+        thread.start();
+        return thread;
+    }
+}
@@ -1,37 +1,108 @@
 package com.example.inventorymanager.service;
 
+import com.example.inventorymanager.dto.BatchSaleResult;
+import com.example.inventorymanager.dto.BatchView;
+import com.example.inventorymanager.dto.CursorPage;
+import com.example.inventorymanager.dto.KeysetCursor;
+import com.example.inventorymanager.dto.SaleLine;
+import com.example.inventorymanager.dto.SaleLineResult;
+import com.example.inventorymanager.dto.SaleRow;
 import com.example.inventorymanager.model.Inventory;
+import com.example.inventorymanager.model.Product;
 import com.example.inventorymanager.model.Sale;
 import com.example.inventorymanager.repository.SaleRepository;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
 
+import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
+@Timed(value = "inventory.service", histogram = true)
 public class SaleService {
 
     private final SaleRepository saleRepository;
     private final InventoryService inventoryService;
+    private final SalesReportService salesReportService;
+    private final InventoryMetrics inventoryMetrics;
+    private final StockLedgerService stockLedgerService;
 
-    public SaleService(SaleRepository saleRepository, InventoryService inventoryService) {
+    public SaleService(SaleRepository saleRepository, InventoryService inventoryService,
+            SalesReportService salesReportService, InventoryMetrics inventoryMetrics,
+            StockLedgerService stockLedgerService) {
         this.saleRepository = saleRepository;
         this.inventoryService = inventoryService;
+        this.salesReportService = salesReportService;
+        this.inventoryMetrics = inventoryMetrics;
+        this.stockLedgerService = stockLedgerService;
     }
 
-    public Page<Sale> getAllSales(int pageNo, int pageSize, String sortField, String sortDir) {
+    public Page<SaleRow> getAllSales(int pageNo, int pageSize, String sortField, String sortDir) {
         Sort sort = Sort.by(Sort.Direction.fromString(sortDir != null ? sortDir : "desc"),
                 sortField != null ? sortField : "saleDate");
         Pageable pageable = PageRequest.of(pageNo - 1, pageSize, sort);
-        return saleRepository.findAll(pageable);
+        return saleRepository.findSaleRows(pageable);
+    }
+
+    /**
+     * Keyset (seek) page of sales ordered by (saleDate, id). Costs the same at
+     * any depth because it never counts or skips rows.
+     *
+     * @param after  cursor of the last row of the previous page (next page)
+     * @param before cursor of the first row of the following page (previous page)
+     */
+    public CursorPage<SaleRow> getSalesPage(String after, String before, int pageSize, String sortDir) {
+        boolean descending = !"asc".equalsIgnoreCase(sortDir);
+        boolean forward = !StringUtils.hasText(before);
+        String cursor = forward ? after : before;
+        if (!StringUtils.hasText(cursor)) {
+            cursor = null;
+        }
+        // One extra row tells whether there is more beyond this page
+        Limit limit = Limit.of(pageSize + 1);
+
+        List<SaleRow> rows;
+        if (cursor == null) {
+            rows = descending ? saleRepository.findFirstSaleRowsDesc(limit) : saleRepository.findFirstSaleRowsAsc(limit);
+        } else {
+            KeysetCursor position = KeysetCursor.parse(cursor);
+            LocalDate saleDate;
+            try {
+                saleDate = LocalDate.parse(position.key());
+            } catch (DateTimeParseException e) {
+                throw new IllegalArgumentException("Invalid cursor: " + cursor);
+            }
+            // Scrolling backwards walks the opposite way from the display order
+            rows = descending == forward
+                    ? saleRepository.findSaleRowsBefore(saleDate, position.id(), limit)
+                    : saleRepository.findSaleRowsAfter(saleDate, position.id(), limit);
+        }
+
+        boolean hasMore = rows.size() > pageSize;
+        List<SaleRow> content = new ArrayList<>(hasMore ? rows.subList(0, pageSize) : rows);
+        if (!forward) {
+            Collections.reverse(content);
+        }
+        return CursorPage.of(content, hasMore, forward, cursor != null,
+                row -> KeysetCursor.of(row.saleDate(), row.id()));
     }
 
     public Page<Sale> getSalesByProduct(Long productId, int pageNo, int pageSize) {
@@ -46,34 +117,222 @@ public class SaleService {
     /**
      * Create a new sale and deduct from inventory
      * MANDATORY: Prevents selling from expired batches
+     * The stock and expiry checks are enforced by the conditional deduction in
+     * InventoryService.updateQuantity, so the batch is not re-read here.
      */
     @Transactional
     public Sale createSale(Sale sale) {
-        // Get the inventory batch
-        Inventory inventory = inventoryService.getInventoryById(sale.getInventory().getId())
-                .orElseThrow(() -> new IllegalArgumentException("Inventory batch not found"));
+        return createSale(sale, false);
+    }
 
-        // MANDATORY: Prevent selling from expired batches
-        if (inventory.getExpiryDate() != null && inventory.getExpiryDate().isBefore(LocalDate.now())) {
-            throw new IllegalStateException("Cannot sell from expired batch. Batch: " +
-                    inventory.getBatchCode() + ", Expired on: " + inventory.getExpiryDate());
+    /**
+     * Create the sale confirming a stock reservation: the deduction takes the
+     * units the reservation holds rather than leaving them behind
+     */
+    @Transactional
+    public Sale createHeldSale(Sale sale) {
+        return createSale(sale, true);
+    }
+
+    private Sale createSale(Sale sale, boolean held) {
+        if (sale.getInventory() == null || sale.getInventory().getId() == null) {
+            throw new IllegalArgumentException("Inventory batch not found");
         }
 
-        // Validate quantity availability
-        int available = inventoryService.getAvailableQuantity(sale.getInventory().getId());
-        if (sale.getQuantity() > available) {
+        // Validate before touching stock
+        sale.validate();
+
+        // Deduct quantity from inventory (fails if expired or insufficient)
+        if (held) {
+            inventoryService.deductHeldQuantity(sale.getInventory().getId(), sale.getQuantity());
+        } else {
+            inventoryService.updateQuantity(sale.getProduct().getId(), sale.getInventory().getId(), -sale.getQuantity());
+        }
+
+        // Save the sale
+        Sale saved = saleRepository.save(sale);
+        salesReportService.recordSale(saved);
+        stockLedgerService.recordSale(saved);
+        return saved;
+    }
+
+    /**
+     * Sell a quantity of a product without picking a batch: the quantity is
+     * split across the non-expired batches, earliest expiry first (FEFO), and
+     * one Sale row is created per batch used. The batches are read with one
+     * ordered, locking query, so the allocation cannot be raced by other tills.
+     * Units held by reservations are not allocated.
+     *
+     * @return the created sales, in allocation order
+     */
+    @Transactional
+    public List<Sale> createSaleFefo(Product product, Sale template) {
+        template.validate();
+
+        List<Inventory> batches = inventoryService.lockSellableBatches(product.getId());
+        int available = batches.stream().mapToInt(inventoryService::getAvailableQuantity).sum();
+        if (template.getQuantity() > available) {
+            inventoryMetrics.insufficientStock();
             throw new IllegalStateException("Insufficient inventory. Available: " + available +
-                    ", Requested: " + sale.getQuantity());
+                    ", Requested: " + template.getQuantity());
         }
 
-        // Deduct quantity from inventory
-        inventoryService.updateQuantity(sale.getInventory().getId(), -sale.getQuantity());
+        List<Sale> sales = new ArrayList<>();
+        int remaining = template.getQuantity();
+        for (Inventory batch : batches) {
+            if (remaining == 0) {
+                break;
+            }
+            int take = Math.min(remaining, inventoryService.getAvailableQuantity(batch));
+            if (take == 0) {
+                continue;
+            }
+            inventoryService.deductLockedBatch(batch, take);
+            remaining -= take;
+
+            Sale sale = new Sale();
+            sale.setProduct(product);
+            sale.setInventory(batch);
+            sale.setQuantity(take);
+            sale.setSellingPrice(template.getSellingPrice());
+            sale.setSaleDate(template.getSaleDate() != null ? template.getSaleDate() : LocalDate.now());
+            sales.add(sale);
+            salesReportService.recordSale(sale);
+        }
 
-        // Validate before saving
-        sale.validate();
+        List<Sale> saved = saleRepository.saveAll(sales);
+        stockLedgerService.recordSales(saved);
+        return saved;
+    }
 
-        // Save the sale
-        return saleRepository.save(sale);
+    /**
+     * Apply a whole list of sale lines (POS end-of-day upload) in one
+     * transaction. Batches are loaded with one query, stock is deducted once
+     * per batch for the summed quantity, and the accepted sales are inserted
+     * through JDBC batching. Invalid lines are reported and skipped rather than
+     * failing the whole upload.
+     * MANDATORY: Prevents selling from expired batches
+     */
+    @Transactional
+    public BatchSaleResult createSales(List<SaleLine> lines) {
+        long start = System.nanoTime();
+        SaleLineResult[] results = new SaleLineResult[lines.size()];
+
+        Set<Long> inventoryIds = lines.stream()
+                .map(SaleLine::inventoryId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<Long, Inventory> inventories = inventoryService.getInventoriesByIds(inventoryIds);
+
+        // Validate each line and group the survivors by batch, keeping upload order
+        Map<Long, List<Integer>> linesByBatch = new LinkedHashMap<>();
+        for (int i = 0; i < lines.size(); i++) {
+            String error = validateLine(lines.get(i), inventories);
+            if (error != null) {
+                results[i] = SaleLineResult.rejected(i + 1, error);
+            } else {
+                linesByBatch.computeIfAbsent(lines.get(i).inventoryId(), k -> new ArrayList<>()).add(i);
+            }
+        }
+
+        List<Sale> sales = new ArrayList<>();
+        List<Integer> saleLineIndexes = new ArrayList<>();
+        for (Map.Entry<Long, List<Integer>> group : linesByBatch.entrySet()) {
+            Inventory inventory = inventories.get(group.getKey());
+
+            // Accept lines in upload order while the batch still has stock
+            int remaining = inventoryService.getAvailableQuantity(inventory);
+            int deduct = 0;
+            List<Integer> accepted = new ArrayList<>();
+            for (int index : group.getValue()) {
+                int quantity = lines.get(index).quantity();
+                if (quantity > remaining) {
+                    inventoryMetrics.insufficientStock();
+                    results[index] = SaleLineResult.rejected(index + 1, "Insufficient inventory. Batch: " +
+                            inventory.getBatchCode() + ", Available: " + remaining + ", Requested: " + quantity);
+                    continue;
+                }
+                remaining -= quantity;
+                deduct += quantity;
+                accepted.add(index);
+            }
+
+            // One conditional deduction per batch; guards against concurrent sales since the read
+            if (deduct > 0 && !inventoryService.tryDeductQuantity(inventory.getProduct().getId(), inventory.getId(), deduct)) {
+                for (int index : accepted) {
+                    results[index] = SaleLineResult.rejected(index + 1,
+                            "Batch " + inventory.getBatchCode() + " changed during upload, please resubmit");
+                }
+                continue;
+            }
+
+            for (int index : accepted) {
+                SaleLine line = lines.get(index);
+                Sale sale = new Sale();
+                sale.setProduct(inventory.getProduct());
+                sale.setInventory(inventory);
+                sale.setQuantity(line.quantity());
+                sale.setSellingPrice(line.sellingPrice());
+                sale.setSaleDate(line.saleDate() != null ? line.saleDate() : LocalDate.now());
+                sales.add(sale);
+                saleLineIndexes.add(index);
+            }
+        }
+
+        saleRepository.saveAll(sales);
+        for (int i = 0; i < sales.size(); i++) {
+            int index = saleLineIndexes.get(i);
+            results[index] = SaleLineResult.accepted(index + 1, sales.get(i).getId());
+        }
+        recordRollup(sales);
+        stockLedgerService.recordSales(sales);
+
+        long elapsedNanos = System.nanoTime() - start;
+        double linesPerSecond = lines.isEmpty() ? 0 : lines.size() / (elapsedNanos / 1_000_000_000.0);
+        return new BatchSaleResult(sales.size(), lines.size() - sales.size(),
+                elapsedNanos / 1_000_000, linesPerSecond, Arrays.asList(results));
+    }
+
+    /**
+     * Add bulk sales to the daily rollup with one delta per day and batch
+     */
+    private void recordRollup(List<Sale> sales) {
+        Map<List<Object>, List<Sale>> byDayAndBatch = sales.stream()
+                .collect(Collectors.groupingBy(
+                        sale -> List.of(sale.getSaleDate(), sale.getProduct().getId(), sale.getInventory().getId()),
+                        LinkedHashMap::new, Collectors.toList()));
+        byDayAndBatch.values().forEach(group -> {
+            Sale first = group.get(0);
+            long units = group.stream().mapToLong(Sale::getQuantity).sum();
+            BigDecimal revenue = group.stream().map(Sale::getTotalAmount).reduce(BigDecimal.ZERO, BigDecimal::add);
+            salesReportService.applyDelta(first.getSaleDate(), first.getProduct().getId(),
+                    first.getInventory().getId(), units, revenue, group.size());
+        });
+    }
+
+    /**
+     * @return an error message, or null if the line can be applied
+     */
+    private String validateLine(SaleLine line, Map<Long, Inventory> inventories) {
+        if (line.quantity() == null || line.quantity() <= 0) {
+            return "Sale quantity must be greater than 0";
+        }
+        if (line.sellingPrice() == null || line.sellingPrice().compareTo(BigDecimal.ZERO) <= 0) {
+            return "Selling price must be greater than 0";
+        }
+        Inventory inventory = line.inventoryId() != null ? inventories.get(line.inventoryId()) : null;
+        if (inventory == null) {
+            return "Inventory batch not found";
+        }
+        if (line.productId() != null && !line.productId().equals(inventory.getProduct().getId())) {
+            return "Batch " + inventory.getBatchCode() + " does not belong to product " + line.productId();
+        }
+        if (inventory.isExpired()) {
+            inventoryMetrics.expiredBatch();
+            return "Cannot sell from expired batch. Batch: " +
+                    inventory.getBatchCode() + ", Expired on: " + inventory.getExpiryDate();
+        }
+        return null;
     }
 
     /**
@@ -101,7 +360,8 @@ public class SaleService {
                     .orElseThrow(() -> new IllegalArgumentException("Inventory batch not found"));
 
             // MANDATORY: Prevent selling from expired batches
-            if (newInventory.getExpiryDate() != null && newInventory.getExpiryDate().isBefore(LocalDate.now())) {
+            if (newInventory.isExpired()) {
+                inventoryMetrics.expiredBatch();
                 throw new IllegalStateException("Cannot sell from expired batch. Batch: " +
                         newInventory.getBatchCode() + ", Expired on: " + newInventory.getExpiryDate());
             }
@@ -115,6 +375,7 @@ public class SaleService {
 
             // Validate new quantity against effective available
             if (updatedSale.getQuantity() > effectiveAvailable) {
+                inventoryMetrics.insufficientStock();
                 throw new IllegalStateException("Insufficient inventory. Effective available: " + effectiveAvailable +
                         " (current: " + currentAvailable + ", from this sale: " +
                         (inventoryChanged ? 0 : existingSale.getQuantity()) + "), Requested: "
@@ -124,13 +385,30 @@ public class SaleService {
             // Restore old quantity and deduct new quantity
             if (inventoryChanged) {
                 // Different batches: restore to old, deduct from new
-                inventoryService.updateQuantity(existingSale.getInventory().getId(), existingSale.getQuantity());
-                inventoryService.updateQuantity(updatedSale.getInventory().getId(), -updatedSale.getQuantity());
+                inventoryService.updateQuantity(existingSale.getProduct().getId(), existingSale.getInventory().getId(),
+                        existingSale.getQuantity());
+                inventoryService.updateQuantity(newInventory.getProduct().getId(), newInventory.getId(),
+                        -updatedSale.getQuantity());
             } else {
                 // Same batch: adjust by the difference
                 int quantityDifference = updatedSale.getQuantity() - existingSale.getQuantity();
-                inventoryService.updateQuantity(existingSale.getInventory().getId(), -quantityDifference);
+                inventoryService.updateQuantity(existingSale.getProduct().getId(), existingSale.getInventory().getId(),
+                        -quantityDifference);
             }
+        } else {
+            // The stock updates above lock the batches; a date or price edit
+            // must too, or its rollup delta races concurrent sales of the batch
+            inventoryService.lockBatch(existingSale.getInventory().getId());
+        }
+
+        // Take the old values out of the daily rollup before overwriting them
+        salesReportService.reverseSale(existingSale);
+
+        // Same for the stock ledger, when the stock side of the sale changes
+        boolean stockChanged = inventoryChanged || quantityChanged
+                || !existingSale.getSaleDate().equals(updatedSale.getSaleDate());
+        if (stockChanged) {
+            stockLedgerService.reverseSale(existingSale);
         }
 
         // Update sale details
@@ -143,6 +421,10 @@ public class SaleService {
         // Validate before saving
         existingSale.validate();
 
+        salesReportService.recordSale(existingSale);
+        if (stockChanged) {
+            stockLedgerService.recordSale(existingSale);
+        }
         return saleRepository.save(existingSale);
     }
 
@@ -159,40 +441,38 @@ public class SaleService {
         Sale sale = saleOpt.get();
 
         // Restore quantity to inventory
-        inventoryService.updateQuantity(sale.getInventory().getId(), sale.getQuantity());
+        inventoryService.updateQuantity(sale.getProduct().getId(), sale.getInventory().getId(), sale.getQuantity());
 
         // Delete the sale
         saleRepository.deleteById(id);
+        salesReportService.reverseSale(sale);
+        stockLedgerService.reverseSale(sale);
     }
 
     /**
      * Get available batches for a product with quantity > 0
      * Excludes expired batches
      */
-    public List<Inventory> getAvailableBatches(Long productId) {
-        return inventoryService.getAvailableBatches(productId).stream()
-                .filter(inv -> inv.getExpiryDate() == null || inv.getExpiryDate().isAfter(LocalDate.now()))
-                .collect(Collectors.toList());
+    public List<BatchView> getAvailableBatches(Long productId) {
+        return inventoryService.getAvailableBatches(productId);
     }
 
     /**
      * FIX: Get batches for edit mode - includes current batch even if 0 quantity
      * This ensures the edit form can display the currently selected batch
      */
-    public List<Inventory> getBatchesForEdit(Long productId, Long currentInventoryId) {
-        List<Inventory> availableBatches = new ArrayList<>(getAvailableBatches(productId));
+    public List<BatchView> getBatchesForEdit(Long productId, Long currentInventoryId) {
+        List<BatchView> availableBatches = new ArrayList<>(getAvailableBatches(productId));
 
         // If current batch is not in the list (because it has 0 qty), add it
         boolean currentBatchIncluded = availableBatches.stream()
-                .anyMatch(b -> b.getId().equals(currentInventoryId));
+                .anyMatch(b -> b.id().equals(currentInventoryId));
 
         if (!currentBatchIncluded && currentInventoryId != null) {
             inventoryService.getInventoryById(currentInventoryId).ifPresent(currentBatch -> {
                 // Only add if it belongs to the same product and not expired
-                if (currentBatch.getProduct().getId().equals(productId) &&
-                        (currentBatch.getExpiryDate() == null
-                                || currentBatch.getExpiryDate().isAfter(LocalDate.now()))) {
-                    availableBatches.add(0, currentBatch); // Add at beginning
+                if (currentBatch.getProduct().getId().equals(productId) && !currentBatch.isExpired()) {
+                    availableBatches.add(0, BatchView.of(currentBatch)); // Add at beginning
                 }
             });
         }
@@ -0,0 +1,96 @@
+package com.example.inventorymanager.service;
+
+import com.example.inventorymanager.dto.SalesReport;
+import com.example.inventorymanager.dto.SalesReportRow;
+import com.example.inventorymanager.model.Sale;
+import com.example.inventorymanager.repository.DailySalesRollupRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Maintains the daily_sales_rollup table (one row per day and batch) and
+ * serves date-range sales reports from it.
+ *
+ * SaleService calls {@link #recordSale} and {@link #reverseSale} inside its
+ * own transaction, so the rollup always commits or rolls back together with
+ * the sale. Each call is a single MERGE of the day's row, which inserts it the
+ * first time a batch sells on a given day. Callers have already updated the
+ * batch row in the same transaction, so its row lock keeps two first sales of
+ * a batch from inserting the same rollup row.
+ */
+@Service
+public class SalesReportService {
+
+    private final DailySalesRollupRepository rollupRepository;
+
+    public SalesReportService(DailySalesRollupRepository rollupRepository) {
+        this.rollupRepository = rollupRepository;
+    }
+
+    @Transactional
+    public void recordSale(Sale sale) {
+        applyDelta(sale.getSaleDate(), sale.getProduct().getId(), sale.getInventory().getId(),
+                sale.getQuantity(), sale.getTotalAmount(), 1);
+    }
+
+    @Transactional
+    public void reverseSale(Sale sale) {
+        applyDelta(sale.getSaleDate(), sale.getProduct().getId(), sale.getInventory().getId(),
+                -sale.getQuantity(), sale.getTotalAmount().negate(), -1);
+    }
+
+    /**
+     * Add a delta to one day/batch row, creating the row if this is its first sale
+     */
+    @Transactional
+    public void applyDelta(LocalDate saleDate, Long productId, Long inventoryId,
+            long units, BigDecimal revenue, long saleCount) {
+        rollupRepository.upsertDelta(saleDate, productId, inventoryId, units, revenue, saleCount);
+    }
+
+    /**
+     * All sales of a batch were removed (batch deleted)
+     */
+    @Transactional
+    public void removeBatch(Long inventoryId) {
+        rollupRepository.deleteByInventoryId(inventoryId);
+    }
+
+    /**
+     * Rebuild the rollup from the live sales table, e.g. after a restore or a
+     * manual data fix. Run it while no sales are being taken.
+     *
+     * @return number of rollup rows written
+     */
+    @Transactional
+    public int rebuild() {
+        rollupRepository.deleteAllRows();
+        return rollupRepository.insertFromSales();
+    }
+
+    /**
+     * @param groupBy "day", "product" or "batch"
+     */
+    public SalesReport getReport(LocalDate from, LocalDate to, String groupBy) {
+        List<SalesReportRow> rows = switch (groupBy) {
+            case "day" -> rollupRepository.totalsByDay(from, to);
+            case "product" -> rollupRepository.totalsByProduct(from, to);
+            case "batch" -> rollupRepository.totalsByBatch(from, to);
+            default -> throw new IllegalArgumentException("Unknown groupBy: " + groupBy + " (use day, product or batch)");
+        };
+
+        long units = 0;
+        long saleCount = 0;
+        BigDecimal revenue = BigDecimal.ZERO;
+        for (SalesReportRow row : rows) {
+            units += row.units();
+            saleCount += row.saleCount();
+            revenue = revenue.add(row.revenue());
+        }
+        return new SalesReport(from, to, groupBy, units, revenue, saleCount, rows);
+    }
+}
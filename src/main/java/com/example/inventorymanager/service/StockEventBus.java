@@ -0,0 +1,138 @@
+package com.example.inventorymanager.service;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * In-process fan-out of "stock of product X changed" events, published by
+ * AvailableBatchIndex after each stock write commits. Every event names the
+ * product written, so a subscriber only hears about products it watches.
+ *
+ * Each subscriber has a bounded buffer of pending product IDs. Events for a
+ * product already pending coalesce into one, so a burst of sales becomes a
+ * single delivery of the latest state. If the buffer overflows, it is
+ * dropped and every watched product is redelivered instead. Delivery runs on
+ * a small dispatcher pool, at most one drain per subscriber at a time, so
+ * publishers never block on a slow subscriber.
+ */
+@Component
+public class StockEventBus {
+
+    private final Set<Subscription> subscriptions = ConcurrentHashMap.newKeySet();
+    private final ExecutorService dispatcher;
+    private final int bufferSize;
+
+    public StockEventBus(@Value("${inventory.stream.buffer-size:16}") int bufferSize,
+            @Value("${inventory.stream.dispatch-threads:4}") int dispatchThreads) {
+        this.bufferSize = bufferSize;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.dispatcher = Executors.newFixedThreadPool(dispatchThreads, runnable -> {
+            Thread thread = new Thread(runnable, "stock-events-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * @param sink receives the IDs of changed products; throwing closes the subscription
+     */
+    public Subscription subscribe(Collection<Long> productIds, Consumer<Set<Long>> sink) {
+        Subscription subscription = new Subscription(Set.copyOf(productIds), sink);
+        subscriptions.add(subscription);
+        return subscription;
+    }
+
+    public void publish(Long productId) {
+        for (Subscription subscription : subscriptions) {
+            if (subscription.productIds.contains(productId)) {
+                subscription.offer(productId);
+            }
+        }
+    }
+
+    public int subscriberCount() {
+        return subscriptions.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        dispatcher.shutdownNow();
+    }
+
+    public final class Subscription {
+
+        private final Set<Long> productIds;
+        private final Consumer<Set<Long>> sink;
+
+        // Guarded by this
+        private final Set<Long> pending = new LinkedHashSet<>();
+        private boolean overflowed;
+        private boolean scheduled;
+        private volatile boolean closed;
+
+        private Subscription(Set<Long> productIds, Consumer<Set<Long>> sink) {
+            this.productIds = productIds;
+            this.sink = sink;
+        }
+
+        /**
+         * Redeliver every watched product (also used for the initial state)
+         */
+        public synchronized void refresh() {
+            overflowed = true;
+            schedule();
+        }
+
+        public void close() {
+            closed = true;
+            subscriptions.remove(this);
+        }
+
+        private synchronized void offer(Long productId) {
+            if (!pending.contains(productId) && pending.size() >= bufferSize) {
+                pending.clear();
+                overflowed = true;
+            } else if (!overflowed) {
+                pending.add(productId);
+            }
+            schedule();
+        }
+
+        private void schedule() {
+            if (!scheduled && !closed) {
+                scheduled = true;
+                dispatcher.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            while (true) {
+                Set<Long> changed;
+                synchronized (this) {
+                    if (closed || (pending.isEmpty() && !overflowed)) {
+                        scheduled = false;
+                        return;
+                    }
+                    changed = overflowed ? productIds : new LinkedHashSet<>(pending);
+                    pending.clear();
+                    overflowed = false;
+                }
+                try {
+                    sink.accept(changed);
+                } catch (RuntimeException e) {
+                    close();
+                }
+            }
+        }
+    }
+}
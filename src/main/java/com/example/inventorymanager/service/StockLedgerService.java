@@ -0,0 +1,235 @@
+package com.example.inventorymanager.service;
+
+import com.example.inventorymanager.dto.BatchStock;
+import com.example.inventorymanager.dto.LedgerBatch;
+import com.example.inventorymanager.dto.StockAsOf;
+import com.example.inventorymanager.model.Inventory;
+import com.example.inventorymanager.model.Sale;
+import com.example.inventorymanager.model.StockMovement;
+import com.example.inventorymanager.model.StockMovementType;
+import com.example.inventorymanager.model.StockSnapshot;
+import com.example.inventorymanager.repository.InventoryRepository;
+import com.example.inventorymanager.repository.StockMovementRepository;
+import com.example.inventorymanager.repository.StockSnapshotRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Maintains the append-only stock movement ledger and its per-batch daily
+ * snapshots, and answers "what was on hand on date X" from them.
+ *
+ * InventoryService and SaleService record movements inside their own
+ * transactions, so the ledger commits or rolls back with the stock change.
+ * A nightly job snapshots every batch that moved since the previous run, so
+ * a point-in-time query is one snapshot read plus a short tail of movements.
+ *
+ * A backdated movement (dated before today) drops the batch's snapshots from
+ * its date on; queries then fall back to an older snapshot and a longer tail
+ * until the next snapshot run, which picks the batch up again. Both paths
+ * lock the batch row, so a backdated movement cannot slip past a snapshot
+ * being taken.
+ *
+ * Batches created before the ledger existed get one opening-balance entry at
+ * startup. Their earlier history is unknown, so they show the quantity found
+ * then from their entry date on.
+ */
+@Service
+public class StockLedgerService {
+
+    private static final Logger log = LoggerFactory.getLogger(StockLedgerService.class);
+
+    private final StockMovementRepository movementRepository;
+    private final StockSnapshotRepository snapshotRepository;
+    private final InventoryRepository inventoryRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    public StockLedgerService(StockMovementRepository movementRepository,
+            StockSnapshotRepository snapshotRepository, InventoryRepository inventoryRepository,
+            PlatformTransactionManager transactionManager) {
+        this.movementRepository = movementRepository;
+        this.snapshotRepository = snapshotRepository;
+        this.inventoryRepository = inventoryRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * A new batch was received, dated by its entry date. Written even for an
+     * empty batch, so the batch is in the ledger before any stock arrives.
+     */
+    @Transactional
+    public void recordReceipts(List<Inventory> batches) {
+        movementRepository.saveAll(batches.stream()
+                .map(batch -> movement(StockMovementType.RECEIPT, batch, quantityOf(batch), entryDateOf(batch), null))
+                .toList());
+    }
+
+    @Transactional
+    public void recordReceipt(Inventory batch) {
+        recordReceipts(List.of(batch));
+    }
+
+    /**
+     * Stock changed outside a sale (batch edited or deleted), dated today
+     */
+    @Transactional
+    public void recordAdjustment(Inventory batch, int quantity) {
+        if (quantity != 0) {
+            movementRepository.save(movement(StockMovementType.ADJUSTMENT, batch, quantity, LocalDate.now(), null));
+        }
+    }
+
+    @Transactional
+    public void recordSale(Sale sale) {
+        recordSales(List.of(sale));
+    }
+
+    @Transactional
+    public void recordSales(List<Sale> sales) {
+        append(sales.stream()
+                .map(sale -> movement(StockMovementType.SALE, sale.getInventory(), -sale.getQuantity(),
+                        sale.getSaleDate(), sale.getId()))
+                .toList());
+    }
+
+    /**
+     * Take a sale back out of the ledger (sale edited or deleted), on the
+     * sale's own date so history reads as if it never happened
+     */
+    @Transactional
+    public void reverseSale(Sale sale) {
+        append(List.of(movement(StockMovementType.SALE_REVERSAL, sale.getInventory(), sale.getQuantity(),
+                sale.getSaleDate(), sale.getId())));
+    }
+
+    /**
+     * Stock of a product on hand at the end of a date, per batch
+     */
+    @Transactional(readOnly = true)
+    public StockAsOf getStockAsOf(Long productId, LocalDate date) {
+        List<BatchStock> batches = new ArrayList<>();
+        long total = 0;
+        for (LedgerBatch batch : movementRepository.findBatches(productId, date)) {
+            long quantity = stockOn(batch.inventoryId(), date);
+            if (quantity != 0) {
+                batches.add(new BatchStock(batch.inventoryId(), batch.batchCode(), quantity));
+                total += quantity;
+            }
+        }
+        return new StockAsOf(productId, date, total, batches);
+    }
+
+    /**
+     * Bring batches that predate the ledger into it, and catch up on
+     * snapshots missed while the application was down
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        backfillOpeningBalances();
+        takeSnapshots();
+    }
+
+    /**
+     * One opening-balance entry, dated by its entry date, for every batch
+     * without any ledger entry. Later runs find nothing left to do.
+     */
+    public void backfillOpeningBalances() {
+        Integer backfilled = transactionTemplate.execute(status -> {
+            List<Inventory> batches = inventoryRepository.findWithoutStockMovements();
+            movementRepository.saveAll(batches.stream()
+                    .map(batch -> movement(StockMovementType.OPENING_BALANCE, batch, quantityOf(batch),
+                            entryDateOf(batch), null))
+                    .toList());
+            return batches.size();
+        });
+        if (backfilled != null && backfilled > 0) {
+            log.info("Stock ledger opening balances: {} batches", backfilled);
+        }
+    }
+
+    /**
+     * Snapshot, as of yesterday, every batch that moved since the last run,
+     * including batches whose snapshots a backdated movement dropped. One
+     * short transaction per batch.
+     */
+    @Scheduled(cron = "${inventory.ledger.snapshot-cron:0 15 0 * * *}")
+    public void takeSnapshots() {
+        LocalDate until = LocalDate.now().minusDays(1);
+        LocalDate since = snapshotRepository.findLatestSnapshotDate();
+        if (since != null && !since.isBefore(until)) {
+            return;
+        }
+        Set<Long> inventoryIds = new LinkedHashSet<>();
+        if (since == null) {
+            inventoryIds.addAll(movementRepository.findInventoryIdsMovedUpTo(until));
+        } else {
+            inventoryIds.addAll(movementRepository.findInventoryIdsMovedBetween(since, until));
+            // The run that snapshotted "since" started the day after it; anything
+            // recorded from then on but dated no later than "since" was backdated
+            inventoryIds.addAll(movementRepository.findInventoryIdsRecordedSince(
+                    since.plusDays(1).atStartOfDay(), since));
+        }
+        for (Long inventoryId : inventoryIds) {
+            transactionTemplate.executeWithoutResult(status -> snapshot(inventoryId, until));
+        }
+        if (!inventoryIds.isEmpty()) {
+            log.info("Stock snapshots as of {}: {} batches", until, inventoryIds.size());
+        }
+    }
+
+    private void snapshot(Long inventoryId, LocalDate date) {
+        Long productId = inventoryRepository.findProductIdForUpdate(inventoryId);
+        if (productId == null || snapshotRepository.existsByInventoryIdAndSnapshotDate(inventoryId, date)) {
+            return;
+        }
+        snapshotRepository.save(new StockSnapshot(productId, inventoryId, date, stockOn(inventoryId, date)));
+    }
+
+    private long stockOn(Long inventoryId, LocalDate date) {
+        Optional<StockSnapshot> snapshot = snapshotRepository
+                .findFirstByInventoryIdAndSnapshotDateLessThanEqualOrderBySnapshotDateDesc(inventoryId, date);
+        if (snapshot.isEmpty()) {
+            return movementRepository.sumUpTo(inventoryId, date);
+        }
+        return snapshot.get().getQuantity()
+                + movementRepository.sumBetween(inventoryId, snapshot.get().getSnapshotDate(), date);
+    }
+
+    private void append(List<StockMovement> movements) {
+        movementRepository.saveAll(movements);
+        LocalDate today = LocalDate.now();
+        for (StockMovement movement : movements) {
+            if (movement.getMovementDate().isBefore(today)) {
+                inventoryRepository.findProductIdForUpdate(movement.getInventoryId());
+                snapshotRepository.deleteFrom(movement.getInventoryId(), movement.getMovementDate());
+            }
+        }
+    }
+
+    private static int quantityOf(Inventory batch) {
+        return batch.getQuantity() != null ? batch.getQuantity() : 0;
+    }
+
+    private static LocalDate entryDateOf(Inventory batch) {
+        return batch.getEntryDate() != null ? batch.getEntryDate() : LocalDate.now();
+    }
+
+    private static StockMovement movement(StockMovementType type, Inventory batch, int quantity, LocalDate date,
+            Long saleId) {
+        return new StockMovement(type, batch.getProduct().getId(), batch.getId(), batch.getBatchCode(), quantity,
+                date, saleId);
+    }
+}
@@ -0,0 +1,227 @@
+package com.example.inventorymanager.service;
+
+import com.example.inventorymanager.dto.ReservationConfirmation;
+import com.example.inventorymanager.dto.ReservationRequest;
+import com.example.inventorymanager.dto.StockReservation;
+import com.example.inventorymanager.model.Inventory;
+import com.example.inventorymanager.model.Sale;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Time-limited stock reservations for phone and online orders.
+ *
+ * A reservation holds units of one batch until it is confirmed into a Sale,
+ * released, or its TTL runs out. The held units are kept on the batch row
+ * (Inventory.held) and taken with the same conditional UPDATE that guards
+ * sales, so a hold and a sale cannot both get the last units. Reservations
+ * themselves live in memory only: a restart drops them, and the holds they
+ * left in the table are cleared on startup.
+ *
+ * Expiry runs on a hashed timer wheel: each reservation is filed in the slot
+ * of the tick its deadline falls in, and each tick looks at one slot only, so
+ * expiring costs nothing per live reservation and only the reservations that
+ * expire touch the database. A deadline more than one turn of the wheel away
+ * stays in its slot until the turn it is due.
+ */
+@Service
+public class StockReservationService {
+
+    private static final Logger log = LoggerFactory.getLogger(StockReservationService.class);
+
+    private static final int WHEEL_SLOTS = 512;
+
+    private final InventoryService inventoryService;
+    private final SaleService saleService;
+    private final long tickMs;
+    private final long defaultTtlSeconds;
+    private final long maxTtlSeconds;
+
+    private final Map<String, StockReservation> reservations = new ConcurrentHashMap<>();
+    private final List<Set<String>> wheel = new ArrayList<>(WHEEL_SLOTS);
+    // Last tick whose slot has been processed; only the scheduler thread moves it
+    private long lastTick;
+
+    public StockReservationService(InventoryService inventoryService, SaleService saleService,
+            @Value("${inventory.reservations.tick-ms:1000}") long tickMs,
+            @Value("${inventory.reservations.default-ttl-seconds:900}") long defaultTtlSeconds,
+            @Value("${inventory.reservations.max-ttl-seconds:86400}") long maxTtlSeconds) {
+        this.inventoryService = inventoryService;
+        this.saleService = saleService;
+        this.tickMs = tickMs;
+        this.defaultTtlSeconds = defaultTtlSeconds;
+        this.maxTtlSeconds = maxTtlSeconds;
+        for (int i = 0; i < WHEEL_SLOTS; i++) {
+            wheel.add(ConcurrentHashMap.newKeySet());
+        }
+        this.lastTick = System.currentTimeMillis() / tickMs - 1;
+    }
+
+    /**
+     * Reservations of a previous run are gone, so are their holds
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        inventoryService.clearHolds();
+    }
+
+    /**
+     * Hold stock of a sellable batch for {@code ttlSeconds} (or the default)
+     *
+     * @throws IllegalArgumentException if the request is invalid or the batch
+     *                                  is not sellable
+     * @throws IllegalStateException    if the batch does not have the stock
+     */
+    public StockReservation reserve(ReservationRequest request) {
+        if (request.productId() == null || request.inventoryId() == null) {
+            throw new IllegalArgumentException("Product and inventory batch are required");
+        }
+        if (request.quantity() == null || request.quantity() <= 0) {
+            throw new IllegalArgumentException("Reserved quantity must be greater than 0");
+        }
+        long ttlSeconds = request.ttlSeconds() != null ? request.ttlSeconds() : defaultTtlSeconds;
+        if (ttlSeconds <= 0 || ttlSeconds > maxTtlSeconds) {
+            throw new IllegalArgumentException("TTL must be between 1 and " + maxTtlSeconds + " seconds");
+        }
+
+        Inventory batch = inventoryService.holdQuantity(request.productId(), request.inventoryId(), request.quantity());
+
+        StockReservation reservation = new StockReservation(UUID.randomUUID().toString(), request.productId(),
+                batch.getId(), batch.getBatchCode(), request.quantity(),
+                Instant.now().plusSeconds(ttlSeconds));
+        reservations.put(reservation.id(), reservation);
+        schedule(reservation);
+        return reservation;
+    }
+
+    public Optional<StockReservation> getReservation(String id) {
+        return Optional.ofNullable(reservations.get(id));
+    }
+
+    /**
+     * Turn a reservation into a sale of the held units; the sale takes them
+     * out of the batch's holds. If the sale fails the reservation stays in
+     * place (unless it has expired meanwhile).
+     */
+    public Sale confirm(String id, ReservationConfirmation confirmation) {
+        StockReservation reservation = reservations.get(id);
+        if (reservation == null) {
+            throw new IllegalArgumentException("Reservation not found or expired: " + id);
+        }
+        Inventory batch = inventoryService.getInventoryById(reservation.inventoryId())
+                .orElseThrow(() -> new IllegalArgumentException("Inventory batch not found"));
+
+        Sale sale = new Sale();
+        sale.setProduct(batch.getProduct());
+        sale.setInventory(batch);
+        sale.setQuantity(reservation.quantity());
+        sale.setSellingPrice(confirmation.sellingPrice());
+        sale.setSaleDate(confirmation.saleDate() != null ? confirmation.saleDate() : LocalDate.now());
+        sale.validate();
+
+        // Claim it first, so expiry or a second confirm cannot release it underneath the sale
+        if (!reservations.remove(id, reservation)) {
+            throw new IllegalArgumentException("Reservation not found or expired: " + id);
+        }
+        try {
+            return saleService.createHeldSale(sale);
+        } catch (RuntimeException e) {
+            if (reservation.expiresAt().isAfter(Instant.now())) {
+                reservations.put(id, reservation);
+                schedule(reservation);
+            } else {
+                releaseExpired(reservation);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Give the held stock back before the reservation expires
+     */
+    public void release(String id) {
+        StockReservation reservation = reservations.remove(id);
+        if (reservation == null) {
+            throw new IllegalArgumentException("Reservation not found or expired: " + id);
+        }
+        try {
+            releaseHold(reservation);
+        } catch (RuntimeException e) {
+            // Still held: keep the reservation so the release (or its expiry) can be retried
+            reservations.put(id, reservation);
+            schedule(reservation);
+            throw e;
+        }
+    }
+
+    /**
+     * Advance the wheel: expire what is due in every slot whose tick has
+     * fully passed since the last run (at most one full turn)
+     */
+    @Scheduled(fixedRateString = "${inventory.reservations.tick-ms:1000}")
+    public void tick() {
+        long now = System.currentTimeMillis();
+        long dueTick = now / tickMs - 1;
+        for (long tick = Math.max(lastTick + 1, dueTick - WHEEL_SLOTS + 1); tick <= dueTick; tick++) {
+            Set<String> slot = wheel.get(slot(tick));
+            slot.removeIf(id -> {
+                StockReservation reservation = reservations.get(id);
+                if (reservation == null) {
+                    // Confirmed or released (a failed confirm files it again)
+                    return true;
+                }
+                if (reservation.expiresAt().toEpochMilli() > now) {
+                    return false;
+                }
+                if (reservations.remove(id, reservation)) {
+                    releaseExpired(reservation);
+                }
+                return true;
+            });
+        }
+        lastTick = Math.max(lastTick, dueTick);
+    }
+
+    // File under the tick its deadline falls in; not yet processed, as the deadline is in the future
+    private void schedule(StockReservation reservation) {
+        wheel.get(slot(reservation.expiresAt().toEpochMilli() / tickMs)).add(reservation.id());
+    }
+
+    /**
+     * Release an expired reservation's hold. If that fails the reservation is
+     * kept and filed under the current tick, so the next tick tries again
+     * rather than leaving its units held until a restart.
+     */
+    private void releaseExpired(StockReservation reservation) {
+        try {
+            releaseHold(reservation);
+        } catch (RuntimeException e) {
+            log.warn("Could not release expired reservation {}, retrying", reservation.id(), e);
+            reservations.put(reservation.id(), reservation);
+            wheel.get(slot(System.currentTimeMillis() / tickMs)).add(reservation.id());
+        }
+    }
+
+    private void releaseHold(StockReservation reservation) {
+        inventoryService.releaseHeldQuantity(reservation.productId(), reservation.inventoryId(), reservation.quantity());
+    }
+
+    private static int slot(long tick) {
+        return (int) Math.floorMod(tick, (long) WHEEL_SLOTS);
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.inventorymanager.service;
+
+import com.example.inventorymanager.dto.StockUpdate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Server-Sent Events stream of live batch stock. Each stream subscribes to
+ * the StockEventBus for its products and, whenever one changes, sends the
+ * product's current sellable batches (read from the in-memory index). The
+ * first event carries the state at subscription time.
+ */
+@Service
+public class StockStreamService {
+
+    private final StockEventBus stockEventBus;
+    private final AvailableBatchIndex availableBatchIndex;
+    private final InventoryService inventoryService;
+    private final int maxStreams;
+
+    private final Map<SseEmitter, StockEventBus.Subscription> streams = new ConcurrentHashMap<>();
+
+    public StockStreamService(StockEventBus stockEventBus, AvailableBatchIndex availableBatchIndex,
+            InventoryService inventoryService, @Value("${inventory.stream.max-streams:500}") int maxStreams) {
+        this.stockEventBus = stockEventBus;
+        this.availableBatchIndex = availableBatchIndex;
+        this.inventoryService = inventoryService;
+        this.maxStreams = maxStreams;
+    }
+
+    public SseEmitter open(Set<Long> productIds) {
+        if (streams.size() >= maxStreams) {
+            throw new IllegalStateException("Too many open stock streams, try again later");
+        }
+        SseEmitter emitter = new SseEmitter();
+        StockEventBus.Subscription subscription = stockEventBus.subscribe(productIds,
+                changed -> changed.forEach(productId -> send(emitter, productId)));
+        streams.put(emitter, subscription);
+
+        Runnable close = () -> {
+            StockEventBus.Subscription closed = streams.remove(emitter);
+            if (closed != null) {
+                closed.close();
+            }
+        };
+        emitter.onCompletion(close);
+        emitter.onTimeout(close);
+        emitter.onError(e -> close.run());
+
+        subscription.refresh();
+        return emitter;
+    }
+
+    /**
+     * Keep idle connections open through proxies and notice clients that went away
+     */
+    @Scheduled(fixedDelayString = "${inventory.stream.heartbeat-ms:25000}")
+    public void heartbeat() {
+        streams.forEach((emitter, subscription) -> {
+            try {
+                emitter.send(SseEmitter.event().comment("ping"));
+            } catch (IOException | IllegalStateException e) {
+                subscription.close();
+                streams.remove(emitter);
+            }
+        });
+    }
+
+    private void send(SseEmitter emitter, Long productId) {
+        // Version first: a change landing in between is sent again with a newer version
+        String version = availableBatchIndex.stockVersion(productId);
+        StockUpdate update = new StockUpdate(productId, version, inventoryService.getAvailableBatches(productId));
+        try {
+            emitter.send(SseEmitter.event().name("stock").id(productId + "-" + version).data(update));
+        } catch (IOException e) {
+            emitter.completeWithError(e);
+            throw new UncheckedIOException(e);
+        }
+    }
+}
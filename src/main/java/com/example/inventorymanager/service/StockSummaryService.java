@@ -0,0 +1,127 @@
+package com.example.inventorymanager.service;
+
+import com.example.inventorymanager.dto.StockTotals;
+import com.example.inventorymanager.model.ProductStockSummary;
+import com.example.inventorymanager.repository.InventoryRepository;
+import com.example.inventorymanager.repository.ProductStockSummaryRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Maintains the product_stock_summary read model (one row per product) and
+ * serves the product list and the dashboard from it.
+ *
+ * InventoryService and SaleService call it inside their own transactions,
+ * so the summary commits or rolls back with the stock. A stock movement is a
+ * single UPDATE of the product's row; a batch or product edit recomputes the
+ * row from the product's batches, after locking it so no concurrent delta is
+ * lost. What counts as expiring soon moves with the date, so the table is
+ * rebuilt daily and on startup. {@link #rebuild} is also the recovery path
+ * after a restore or a manual data fix.
+ */
+@Service
+public class StockSummaryService {
+
+    private final ProductStockSummaryRepository summaryRepository;
+    private final InventoryRepository inventoryRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int expiringDays;
+
+    public StockSummaryService(ProductStockSummaryRepository summaryRepository,
+            InventoryRepository inventoryRepository, PlatformTransactionManager transactionManager,
+            @Value("${inventory.stock-summary.expiring-days:30}") int expiringDays) {
+        this.summaryRepository = summaryRepository;
+        this.inventoryRepository = inventoryRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.expiringDays = expiringDays;
+    }
+
+    public int getExpiringDays() {
+        return expiringDays;
+    }
+
+    /**
+     * A batch's quantity moved by {@code delta} (sale, reversal)
+     */
+    @Transactional
+    public void adjust(Long inventoryId, int delta) {
+        if (summaryRepository.adjust(inventoryId, delta, horizon()) == 0) {
+            // No row for the product yet: create it, this movement included
+            refreshProduct(inventoryRepository.findProductIdForUpdate(inventoryId));
+        }
+    }
+
+    /**
+     * Recompute a product's row from its batches (batch saved, deleted or
+     * imported; product edited). Pending entity changes must be flushed.
+     */
+    @Transactional
+    public void refreshProduct(Long productId) {
+        if (productId == null) {
+            return;
+        }
+        summaryRepository.lockRow(productId);
+        summaryRepository.refreshProduct(productId, horizon());
+    }
+
+    @Transactional
+    public void removeProduct(Long productId) {
+        summaryRepository.deleteByProductId(productId);
+    }
+
+    /**
+     * Rebuild the whole table from the inventory. Runs daily after midnight
+     * (configurable), so the expiring-soon window follows the date.
+     *
+     * @return number of product rows written
+     */
+    @Scheduled(cron = "${inventory.stock-summary.rebuild-cron:0 5 0 * * *}")
+    public int rebuild() {
+        return transactionTemplate.execute(status -> {
+            summaryRepository.deleteAllRows();
+            return summaryRepository.insertAll(horizon());
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        rebuild();
+    }
+
+    /**
+     * Summaries of the given products, keyed by product ID. Products without
+     * a row have no batches yet.
+     */
+    public Map<Long, ProductStockSummary> getSummaries(Collection<Long> productIds) {
+        return summaryRepository.findAllById(productIds).stream()
+                .collect(Collectors.toMap(ProductStockSummary::getProductId, Function.identity()));
+    }
+
+    public StockTotals getTotals() {
+        return summaryRepository.totals();
+    }
+
+    /**
+     * The products with the most sellable units expiring soon
+     */
+    public List<ProductStockSummary> getExpiringSoon() {
+        return summaryRepository.findTop5ByExpiringSoonUnitsGreaterThanOrderByExpiringSoonUnitsDesc(0);
+    }
+
+    private LocalDate horizon() {
+        return LocalDate.now().plusDays(expiringDays);
+    }
+}
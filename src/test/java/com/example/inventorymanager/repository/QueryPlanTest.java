@@ -0,0 +1,367 @@
+package com.example.inventorymanager.repository;
+
+import com.example.inventorymanager.model.Inventory;
+import com.example.inventorymanager.model.Product;
+import com.example.inventorymanager.model.Sale;
+import com.example.inventorymanager.model.StockMovement;
+import com.example.inventorymanager.model.StockMovementType;
+import com.example.inventorymanager.model.StockSnapshot;
+import com.example.inventorymanager.service.AvailableBatchIndex;
+import com.example.inventorymanager.service.BatchSequenceAllocator;
+import com.example.inventorymanager.service.ExpirySweeper;
+import com.example.inventorymanager.service.InventoryMetrics;
+import com.example.inventorymanager.service.InventoryService;
+import com.example.inventorymanager.service.SalesReportService;
+import com.example.inventorymanager.service.StockLedgerService;
+import com.example.inventorymanager.service.StockSummaryService;
+import jakarta.persistence.EntityManager;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Query-plan regression check for the hot repository methods. Each method is
+ * called against a seeded database, the SQL Hibernate sent is captured, and
+ * H2's EXPLAIN of it must not fall back to a full scan (e.g. after an index
+ * was dropped or a query was changed). The few queries that read a whole
+ * table by design are listed in {@link #INTENDED_SCANS}.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "com.example.inventorymanager.repository.QueryPlanTest$SqlRecorder")
+@Import(InventoryService.class)
+class QueryPlanTest {
+
+    // H2 marks a full scan as /* PUBLIC.TABLE.tableScan */, and an index walked
+    // without a condition as /* PUBLIC.INDEX_NAME */ (unless it is a MIN/MAX
+    // read off the index end, marked /* direct lookup */)
+    private static final Pattern FULL_SCAN = Pattern.compile(
+            "/\\* PUBLIC\\.[A-Z0-9_]+(\\.tableScan)? \\*/(?!\\s*/\\* direct lookup \\*/)");
+
+    // Queries that read a whole table on purpose, and why
+    private static final Map<String, String> INTENDED_SCANS = Map.of(
+            "findWithoutStockMovements", "one-off ledger backfill at startup; every batch has to be checked",
+            "sumSellableUnitsByProduct", "metrics gauge with one row per product",
+            "clearHolds", "runs once at startup; an index on held would be updated by every hold",
+            "findArchivableProductIds", "nightly archive job over the (small) product table");
+
+    private static final LocalDate TODAY = LocalDate.of(2026, 3, 1);
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private SaleRepository saleRepository;
+
+    @Autowired
+    private ArchivedSaleRepository archivedSaleRepository;
+
+    @Autowired
+    private DailySalesRollupRepository rollupRepository;
+
+    @Autowired
+    private StockMovementRepository movementRepository;
+
+    @Autowired
+    private StockSnapshotRepository snapshotRepository;
+
+    @Autowired
+    private ProductStockSummaryRepository summaryRepository;
+
+    @Autowired
+    private ArchivedInventoryRepository archivedInventoryRepository;
+
+    @Autowired
+    private ArchivedProductRepository archivedProductRepository;
+
+    // Collaborators of InventoryService the listing queries do not touch
+    @MockBean
+    private AvailableBatchIndex availableBatchIndex;
+    @MockBean
+    private BatchSequenceAllocator batchSequenceAllocator;
+    @MockBean
+    private SalesReportService salesReportService;
+    @MockBean
+    private ExpirySweeper expirySweeper;
+    @MockBean
+    private InventoryMetrics inventoryMetrics;
+    @MockBean
+    private StockLedgerService stockLedgerService;
+    @MockBean
+    private StockSummaryService stockSummaryService;
+
+    // ANALYZE commits in H2, so the seeded rows outlive the first test's
+    // transaction; they are inserted once and shared by every test
+    private static Long productId;
+    private static Long batchId;
+    private static Long saleId;
+    private static LocalDate saleDate;
+
+    /**
+     * Collects every statement Hibernate prepares
+     */
+    public static class SqlRecorder implements StatementInspector {
+
+        static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+
+    @BeforeEach
+    void seed() {
+        if (productId != null) {
+            return;
+        }
+        List<Product> products = new ArrayList<>();
+        for (int p = 0; p < 20; p++) {
+            products.add(new Product("Product " + p, null, new BigDecimal("10.00"), "SKU-" + p));
+        }
+        productRepository.saveAll(products);
+
+        List<Inventory> batches = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            Inventory inventory = new Inventory();
+            inventory.setProduct(products.get(i % products.size()));
+            inventory.setBatchCode("B-" + i);
+            inventory.setBatchSequence((long) i);
+            inventory.setQuantity(i % 7 == 0 ? 0 : 100);
+            inventory.setEntryDate(TODAY.minusDays(i % 60));
+            inventory.setExpiryDate(TODAY.plusDays(i % 400 - 30));
+            batches.add(inventory);
+        }
+        inventoryRepository.saveAll(batches);
+
+        List<Sale> sales = new ArrayList<>();
+        List<StockMovement> movements = new ArrayList<>();
+        List<StockSnapshot> snapshots = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            Inventory inventory = batches.get(i % batches.size());
+            Sale s = new Sale();
+            s.setProduct(inventory.getProduct());
+            s.setInventory(inventory);
+            s.setQuantity(1);
+            s.setSellingPrice(new BigDecimal("12.00"));
+            s.setSaleDate(TODAY.minusDays(i % 365));
+            sales.add(s);
+        }
+        saleRepository.saveAll(sales);
+        for (Sale s : sales) {
+            movements.add(new StockMovement(StockMovementType.SALE, s.getProduct().getId(), s.getInventory().getId(),
+                    s.getInventory().getBatchCode(), -1, s.getSaleDate(), s.getId()));
+        }
+        for (Inventory inventory : batches) {
+            movements.add(new StockMovement(StockMovementType.RECEIPT, inventory.getProduct().getId(),
+                    inventory.getId(), inventory.getBatchCode(), 100, inventory.getEntryDate(), null));
+            snapshots.add(new StockSnapshot(inventory.getProduct().getId(), inventory.getId(), TODAY.minusDays(1), 100));
+        }
+        movementRepository.saveAll(movements);
+        snapshotRepository.saveAll(snapshots);
+        for (Sale s : sales.subList(0, 500)) {
+            rollupRepository.upsertDelta(s.getSaleDate(), s.getProduct().getId(), s.getInventory().getId(),
+                    s.getQuantity(), s.getTotalAmount(), 1);
+        }
+
+        entityManager.flush();
+        entityManager.clear();
+        // Refresh selectivity statistics so the planner sees the seeded data
+        jdbcTemplate.execute("ANALYZE");
+
+        productId = products.get(3).getId();
+        batchId = batches.get(3).getId();
+        saleId = sales.get(3).getId();
+        saleDate = sales.get(3).getSaleDate();
+    }
+
+    @Test
+    void inventoryQueriesUseIndexes() {
+        // Batch list: offset pages and keyset pages, built from the service's filter
+        assertIndexed("getInventoryByProduct", () -> inventoryService.getInventoryByProduct(productId, 3, 5,
+                null, null, null, "ACTIVE", "batchCode", "asc"));
+        assertIndexed("getInventoryPageByProduct", () -> inventoryService.getInventoryPageByProduct(productId,
+                "B-3_" + batchId, null, 5, null, null, null, "ALL", "asc"));
+        assertIndexed("findSellableBatchesForUpdate", () -> inventoryRepository.findSellableBatchesForUpdate(productId));
+        assertIndexed("findBatchViewsInStock", () -> inventoryRepository.findBatchViewsInStock(productId));
+        assertIndexed("findMaxBatchSequenceIncludingDeleted",
+                () -> inventoryRepository.findMaxBatchSequenceIncludingDeleted(productId));
+        assertIndexed("findUpcomingExpiryDates", () -> inventoryRepository.findUpcomingExpiryDates());
+        assertIndexed("decrementQuantity", () -> inventoryRepository.decrementQuantity(batchId, productId, 1));
+        assertIndexed("holdQuantity", () -> inventoryRepository.holdQuantity(batchId, productId, 1));
+        assertIndexed("decrementHeldQuantity", () -> inventoryRepository.decrementHeldQuantity(batchId, 1));
+        assertIndexed("releaseHeld", () -> inventoryRepository.releaseHeld(batchId, 1));
+        assertIndexed("findProductIdsExpiringBy", () -> inventoryRepository.findProductIdsExpiringBy(TODAY));
+        assertIndexed("markExpired", () -> inventoryRepository.markExpired(TODAY));
+        assertIndexed("clearHolds", () -> inventoryRepository.clearHolds());
+    }
+
+    @Test
+    void inventoryLookupsUseIndexes() {
+        assertIndexed("findByProductId", () -> inventoryRepository.findByProductId(productId,
+                PageRequest.of(1, 10, Sort.by("batchCode"))));
+        assertIndexed("countByProductId", () -> inventoryRepository.countByProductId(productId));
+        assertIndexed("findByProductIdAndQuantityGreaterThan",
+                () -> inventoryRepository.findByProductIdAndQuantityGreaterThan(productId, 0));
+        assertIndexed("findProductIdForUpdate", () -> inventoryRepository.findProductIdForUpdate(batchId));
+        assertIndexed("findQuantityById", () -> inventoryRepository.findQuantityById(batchId));
+        assertIndexed("findHeldById", () -> inventoryRepository.findHeldById(batchId));
+        assertIndexed("findAvailableQuantityById", () -> inventoryRepository.findAvailableQuantityById(batchId));
+        assertIndexed("incrementQuantity", () -> inventoryRepository.incrementQuantity(batchId, 1));
+        assertIndexed("findWithoutStockMovements", () -> inventoryRepository.findWithoutStockMovements());
+        assertIndexed("sumSellableUnitsByProduct", () -> inventoryRepository.sumSellableUnitsByProduct());
+
+        // Every filter of the batch list, in both directions
+        assertIndexed("getInventoryByProduct filtered", () -> inventoryService.getInventoryByProduct(productId, 1, 5,
+                "b-1", TODAY.minusDays(30), TODAY, "EXPIRED", "expiryDate", "desc"));
+        assertIndexed("getInventoryByProduct expiring", () -> inventoryService.getInventoryByProduct(productId, 1, 5,
+                null, null, null, "ALL", "entryDate", "asc"));
+        assertIndexed("getInventoryPageByProduct before", () -> inventoryService.getInventoryPageByProduct(productId,
+                null, "B-3_" + batchId, 5, "b-", TODAY.minusDays(30), TODAY, "ACTIVE", "desc"));
+    }
+
+    @Test
+    void saleQueriesUseIndexes() {
+        assertIndexed("findByProductId", () -> saleRepository.findByProductId(productId,
+                PageRequest.of(1, 10, Sort.by("saleDate").descending())));
+        assertIndexed("countByProductId", () -> saleRepository.countByProductId(productId));
+        assertIndexed("findFirstSaleRowsDesc", () -> saleRepository.findFirstSaleRowsDesc(Limit.of(11)));
+        assertIndexed("findSaleRowsBefore",
+                () -> saleRepository.findSaleRowsBefore(saleDate, saleId, Limit.of(11)));
+        assertIndexed("findSaleRowsAfter",
+                () -> saleRepository.findSaleRowsAfter(saleDate, saleId, Limit.of(11)));
+        assertIndexed("streamForExport", () -> {
+            try (Stream<?> rows = saleRepository.streamForExport(TODAY.minusDays(30), TODAY, null)) {
+                rows.count();
+            }
+        });
+        assertIndexed("archived streamForExport", () -> {
+            try (Stream<?> rows = archivedSaleRepository.streamForExport(TODAY.minusDays(30), TODAY, null)) {
+                rows.count();
+            }
+        });
+        assertIndexed("findByInventoryId", () -> saleRepository.findByInventoryId(batchId,
+                PageRequest.of(0, 10, Sort.by("saleDate").descending())));
+        assertIndexed("countByInventoryId", () -> saleRepository.countByInventoryId(batchId));
+        assertIndexed("deleteByInventoryId", () -> saleRepository.deleteByInventoryId(batchId));
+        assertIndexed("archived countLiveByProductId", () -> archivedSaleRepository.countLiveByProductId(productId));
+        assertIndexed("archived deleteByInventoryId", () -> archivedSaleRepository.deleteByInventoryId(batchId));
+    }
+
+    @Test
+    void rollupQueriesUseIndexes() {
+        assertIndexed("upsertDelta", () -> rollupRepository.upsertDelta(TODAY, productId, batchId,
+                1, BigDecimal.TEN, 1));
+        assertIndexed("totalsByDay", () -> rollupRepository.totalsByDay(TODAY.minusDays(7), TODAY));
+        assertIndexed("totalsByProduct", () -> rollupRepository.totalsByProduct(TODAY.minusDays(7), TODAY));
+        assertIndexed("totalsByBatch", () -> rollupRepository.totalsByBatch(TODAY.minusDays(7), TODAY));
+        assertIndexed("deleteByInventoryId", () -> rollupRepository.deleteByInventoryId(batchId));
+    }
+
+    @Test
+    void ledgerQueriesUseIndexes() {
+        assertIndexed("findBatches", () -> movementRepository.findBatches(productId, TODAY));
+        assertIndexed("sumUpTo", () -> movementRepository.sumUpTo(batchId, TODAY));
+        assertIndexed("sumBetween",
+                () -> movementRepository.sumBetween(batchId, TODAY.minusDays(1), TODAY));
+        assertIndexed("findInventoryIdsMovedUpTo", () -> movementRepository.findInventoryIdsMovedUpTo(TODAY));
+        assertIndexed("findInventoryIdsMovedBetween",
+                () -> movementRepository.findInventoryIdsMovedBetween(TODAY.minusDays(1), TODAY));
+        assertIndexed("findInventoryIdsRecordedSince", () -> movementRepository.findInventoryIdsRecordedSince(
+                TODAY.atStartOfDay(), TODAY.minusDays(1)));
+        assertIndexed("latest snapshot", () -> snapshotRepository
+                .findFirstByInventoryIdAndSnapshotDateLessThanEqualOrderBySnapshotDateDesc(batchId, TODAY));
+        assertIndexed("existsByInventoryIdAndSnapshotDate",
+                () -> snapshotRepository.existsByInventoryIdAndSnapshotDate(batchId, TODAY));
+        assertIndexed("findLatestSnapshotDate", () -> snapshotRepository.findLatestSnapshotDate());
+        assertIndexed("snapshot deleteFrom", () -> snapshotRepository.deleteFrom(batchId, TODAY));
+    }
+
+    @Test
+    void stockSummaryQueriesUseIndexes() {
+        assertIndexed("summary adjust", () -> summaryRepository.adjust(batchId, 1, TODAY.plusDays(30)));
+        assertIndexed("summary lockRow", () -> summaryRepository.lockRow(productId));
+        assertIndexed("summary refreshProduct", () -> summaryRepository.refreshProduct(productId, TODAY.plusDays(30)));
+        assertIndexed("summary deleteByProductId", () -> summaryRepository.deleteByProductId(-1L));
+    }
+
+    @Test
+    void archiveQueriesUseIndexes() {
+        // IDs no row has, so the seeded data stays in place
+        List<Long> missing = List.of(-1L, -2L);
+        assertIndexed("findAgedSaleIds", () -> archivedSaleRepository.findAgedSaleIds(TODAY.minusDays(300), 100));
+        assertIndexed("findDeletedSaleIds", () -> archivedSaleRepository.findDeletedSaleIds(100));
+        assertIndexed("lockSales", () -> archivedSaleRepository.lockSales(missing));
+        assertIndexed("copyFromSales", () -> archivedSaleRepository.copyFromSales(missing));
+        assertIndexed("deleteFromSales", () -> archivedSaleRepository.deleteFromSales(missing));
+        assertIndexed("findArchivableInventoryIds", () -> archivedInventoryRepository.findArchivableInventoryIds(100));
+        assertIndexed("lockInventory", () -> archivedInventoryRepository.lockInventory(missing));
+        assertIndexed("copyFromInventory", () -> archivedInventoryRepository.copyFromInventory(missing));
+        assertIndexed("deleteFromInventory", () -> archivedInventoryRepository.deleteFromInventory(missing));
+        assertIndexed("findArchivableProductIds", () -> archivedProductRepository.findArchivableProductIds(100));
+        assertIndexed("lockProducts", () -> archivedProductRepository.lockProducts(missing));
+        assertIndexed("copyFromProducts", () -> archivedProductRepository.copyFromProducts(missing));
+        assertIndexed("deleteFromProducts", () -> archivedProductRepository.deleteFromProducts(missing));
+    }
+
+    /**
+     * Run a repository call and EXPLAIN every query it sent
+     */
+    private void assertIndexed(String name, Runnable call) {
+        SqlRecorder.STATEMENTS.clear();
+        call.run();
+        entityManager.flush();
+
+        List<String> statements = SqlRecorder.STATEMENTS.stream()
+                .filter(sql -> sql.matches("(?is)\\s*(select|update|delete|merge|insert)\\b.*"))
+                .toList();
+        assertFalse(statements.isEmpty(), name + " sent no query");
+        boolean scanned = false;
+        for (String sql : statements) {
+            // Prepared without binding: H2 explains the statement with its parameters unset
+            String plan = jdbcTemplate.query("EXPLAIN " + sql, ps -> {
+            }, rs -> rs.next() ? rs.getString(1) : null);
+            if (plan != null && FULL_SCAN.matcher(plan).find()) {
+                scanned = true;
+                if (!INTENDED_SCANS.containsKey(name)) {
+                    fail(name + " falls back to a full table scan: " + plan.replaceAll("\\s+", " "));
+                }
+            }
+        }
+        // Keep the allow-list honest: an entry that no longer scans goes
+        assertTrue(scanned || !INTENDED_SCANS.containsKey(name), name + " is indexed now; drop it from INTENDED_SCANS");
+    }
+}
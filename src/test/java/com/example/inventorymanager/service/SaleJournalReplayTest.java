@@ -0,0 +1,125 @@
+package com.example.inventorymanager.service;
+
+import com.example.inventorymanager.dto.BatchSaleResult;
+import com.example.inventorymanager.dto.SaleLine;
+import com.example.inventorymanager.dto.SaleLineResult;
+import com.example.inventorymanager.repository.SaleJournalCheckpointRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Startup replay of a journal left behind by a crash: only the intact entries
+ * past the checkpoint are applied, and segments go only once applied.
+ */
+class SaleJournalReplayTest {
+
+    private static final long JOURNAL_ID = 42;
+    // Header slot plus three entries per segment
+    private static final int SEGMENT_SIZE = 4 * SaleJournal.SLOT_SIZE;
+
+    @TempDir
+    Path dir;
+
+    private SaleService saleService;
+    private SaleJournalCheckpointRepository checkpointRepository;
+    private SaleJournalService service;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        saleService = mock(SaleService.class);
+        checkpointRepository = mock(SaleJournalCheckpointRepository.class);
+        when(checkpointRepository.findAppliedSequence(JOURNAL_ID)).thenReturn(Optional.of(2L));
+        service = new SaleJournalService(saleService, mock(InventoryService.class), mock(InventoryMetrics.class),
+                checkpointRepository, mock(PlatformTransactionManager.class), dir, 1, 500, 1000);
+
+        // Entries 1-3 in the first segment, 4-5 in the second, then a slot torn by the crash
+        SaleJournal journal = new SaleJournal(dir, JOURNAL_ID, SEGMENT_SIZE, 1);
+        for (long sequence = 1; sequence <= 5; sequence++) {
+            journal.append(new SaleJournal.Entry(sequence, 7, 100 + sequence, 1, new BigDecimal("12.50"),
+                    LocalDate.of(2026, 3, 1)));
+        }
+        SaleJournal.Segment last = journal.active();
+        last.buffer.putInt(last.position, 0x534A4E45);
+        last.buffer.putLong(last.position + 4, 6);
+        last.buffer.force();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        service.stop();
+    }
+
+    @Test
+    void replaysIntactEntriesPastTheCheckpoint() throws Exception {
+        when(saleService.createSales(anyList())).thenAnswer(call -> accepted(call.getArgument(0)));
+
+        service.start();
+
+        List<List<SaleLine>> applied = capturedBatches(2);
+        assertEquals(List.of(103L), inventoryIds(applied.get(0)));
+        assertEquals(List.of(104L, 105L), inventoryIds(applied.get(1)));
+        verify(checkpointRepository).advance(JOURNAL_ID, 3);
+        verify(checkpointRepository).advance(JOURNAL_ID, 5);
+
+        // The replayed segments are gone; the new one continues after the last intact entry
+        List<SaleJournal.SegmentFile> files = SaleJournal.list(dir);
+        assertEquals(1, files.size());
+        assertEquals(6, files.get(0).firstSequence());
+        assertEquals(5, service.status().appliedSequence());
+        assertEquals(0, service.status().rejectedEntries());
+    }
+
+    @Test
+    void retriesTransientFailuresInsteadOfRejecting() throws Exception {
+        // The whole batch fails, then entry 4 on its own, then everything goes through
+        when(saleService.createSales(anyList()))
+                .thenAnswer(call -> accepted(call.getArgument(0)))
+                .thenThrow(new CannotAcquireLockException("lock timeout"))
+                .thenThrow(new CannotAcquireLockException("lock timeout"))
+                .thenAnswer(call -> accepted(call.getArgument(0)));
+
+        service.start();
+
+        assertEquals(5, service.status().appliedSequence());
+        assertEquals(0, service.status().rejectedEntries());
+        assertTrue(SaleJournal.list(dir).stream().allMatch(file -> file.firstSequence() == 6));
+    }
+
+    private List<List<SaleLine>> capturedBatches(int calls) {
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<SaleLine>> lines = ArgumentCaptor.forClass(List.class);
+        verify(saleService, times(calls)).createSales(lines.capture());
+        return lines.getAllValues();
+    }
+
+    private static List<Long> inventoryIds(List<SaleLine> lines) {
+        return lines.stream().map(SaleLine::inventoryId).toList();
+    }
+
+    private static BatchSaleResult accepted(List<SaleLine> lines) {
+        List<SaleLineResult> results = IntStream.rangeClosed(1, lines.size())
+                .mapToObj(line -> SaleLineResult.accepted(line, (long) line))
+                .toList();
+        return new BatchSaleResult(lines.size(), 0, 1, lines.size(), results);
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.inventorymanager.service;
+
+import com.example.inventorymanager.dto.ReservationConfirmation;
+import com.example.inventorymanager.dto.ReservationRequest;
+import com.example.inventorymanager.dto.StockReservation;
+import com.example.inventorymanager.model.Inventory;
+import com.example.inventorymanager.model.Product;
+import com.example.inventorymanager.model.Sale;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Reservations, single-batch sales and FEFO sales racing for the same batch
+ * must never promise more units than it has, and confirming the holds must
+ * sell exactly what was held.
+ */
+@SpringBootTest
+class StockReservationConcurrencyTest {
+
+    private static final int STOCK = 20;
+    private static final int ATTEMPTS_PER_KIND = 15;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private SaleService saleService;
+
+    @Autowired
+    private StockReservationService stockReservationService;
+
+    @Test
+    void holdsAndSalesNeverOversellABatch() throws Exception {
+        Product product = productService.saveProduct(
+                new Product("Concurrency Honey", null, new BigDecimal("10.00"), "CONC"));
+        Inventory batch = new Inventory();
+        batch.setProduct(product);
+        batch.setQuantity(STOCK);
+        batch.setEntryDate(LocalDate.now());
+        batch = inventoryService.saveInventory(batch);
+        Long batchId = batch.getId();
+        Inventory saleBatch = batch;
+
+        List<StockReservation> reservations = Collections.synchronizedList(new ArrayList<>());
+        List<Callable<Boolean>> attempts = new ArrayList<>();
+        for (int i = 0; i < ATTEMPTS_PER_KIND; i++) {
+            attempts.add(() -> {
+                reservations.add(stockReservationService.reserve(
+                        new ReservationRequest(product.getId(), batchId, 1, 600L)));
+                return true;
+            });
+            attempts.add(() -> {
+                saleService.createSale(sale(product, saleBatch));
+                return false;
+            });
+            attempts.add(() -> {
+                saleService.createSaleFefo(product, sale(product, null));
+                return false;
+            });
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(16);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> results = new ArrayList<>();
+        try {
+            for (Callable<Boolean> attempt : attempts) {
+                results.add(pool.submit(() -> {
+                    start.await();
+                    return attempt.call();
+                }));
+            }
+            start.countDown();
+
+            int held = 0;
+            int sold = 0;
+            for (Future<Boolean> result : results) {
+                try {
+                    if (result.get()) {
+                        held++;
+                    } else {
+                        sold++;
+                    }
+                } catch (ExecutionException e) {
+                    // Out of stock is the expected way for the extra attempts to lose
+                    if (!(e.getCause() instanceof IllegalStateException)) {
+                        throw e;
+                    }
+                }
+            }
+
+            assertEquals(STOCK, held + sold, "every unit goes to exactly one hold or sale");
+            Inventory after = inventoryService.getInventoryById(batchId).orElseThrow();
+            assertEquals(STOCK - sold, after.getQuantity());
+            assertEquals(held, after.getHeld());
+            assertEquals(0, inventoryService.getAvailableQuantity(batchId));
+        } finally {
+            pool.shutdown();
+        }
+
+        for (StockReservation reservation : reservations) {
+            stockReservationService.confirm(reservation.id(),
+                    new ReservationConfirmation(new BigDecimal("12.00"), null));
+        }
+        Inventory confirmed = inventoryService.getInventoryById(batchId).orElseThrow();
+        assertEquals(0, confirmed.getQuantity());
+        assertEquals(0, confirmed.getHeld());
+    }
+
+    private static Sale sale(Product product, Inventory inventory) {
+        Sale sale = new Sale();
+        sale.setProduct(product);
+        sale.setInventory(inventory);
+        sale.setQuantity(1);
+        sale.setSellingPrice(new BigDecimal("12.00"));
+        sale.setSaleDate(LocalDate.now());
+        return sale;
+    }
+}